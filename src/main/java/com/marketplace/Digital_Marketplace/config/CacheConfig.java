@@ -0,0 +1,59 @@
+package com.marketplace.Digital_Marketplace.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String CATEGORIES = "categories";
+    public static final String PRODUCTS = "products";
+    public static final String CATALOG_FIRST_PAGE = "catalogFirstPage";
+    public static final String SELLER_DASHBOARD = "sellerDashboard";
+    public static final String USERS = "users";
+
+    /**
+     * Size-bounded Caffeine caches with stats recording, so actuator publishes
+     * cache.gets / cache.evictions per cache. Entries are evicted on commit by
+     * CatalogCacheInvalidator; the TTL is only a safety net on one node, but it is
+     * what bounds staleness after writes made on another node. Users get their own,
+     * shorter TTL since a password or role change elsewhere must not linger.
+     */
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${cache.categories.max-size:1}") long categoriesMaxSize,
+            @Value("${cache.products.max-size:10000}") long productsMaxSize,
+            @Value("${cache.catalog-first-page.max-size:16}") long firstPageMaxSize,
+            @Value("${cache.seller-dashboard.max-size:5000}") long sellerDashboardMaxSize,
+            @Value("${cache.users.max-size:10000}") long usersMaxSize,
+            @Value("${cache.expire-after-write:10m}") Duration expireAfterWrite,
+            @Value("${cache.users.expire-after-write:2m}") Duration usersExpireAfterWrite) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Only the caches registered below exist; a typo in a cache name fails fast
+        cacheManager.setCacheNames(List.of());
+        cacheManager.registerCustomCache(CATEGORIES, build(categoriesMaxSize, expireAfterWrite));
+        cacheManager.registerCustomCache(PRODUCTS, build(productsMaxSize, expireAfterWrite));
+        cacheManager.registerCustomCache(CATALOG_FIRST_PAGE, build(firstPageMaxSize, expireAfterWrite));
+        cacheManager.registerCustomCache(SELLER_DASHBOARD, build(sellerDashboardMaxSize, expireAfterWrite));
+        cacheManager.registerCustomCache(USERS, build(usersMaxSize, usersExpireAfterWrite));
+        return cacheManager;
+    }
+
+    private static Cache<Object, Object> build(long maxSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
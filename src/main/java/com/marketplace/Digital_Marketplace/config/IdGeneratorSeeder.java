@@ -0,0 +1,39 @@
+package com.marketplace.Digital_Marketplace.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the table-generator counters past ids already in use (rows created
+ * while the tables were AUTO_INCREMENT), before the web server takes requests
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdGeneratorSeeder {
+
+    // Must match allocationSize on the @TableGenerator mappings
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void seed() {
+        seed("products", "products");
+        seed("product_files", "product_files");
+    }
+
+    private void seed(String entity, String table) {
+        try {
+            jdbcTemplate.update("INSERT INTO id_generators (entity, next_val) " +
+                    "SELECT ?, COALESCE(MAX(id), 0) + ? FROM " + table + " " +
+                    "ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val))",
+                    entity, ALLOCATION_SIZE + 1);
+        } catch (Exception e) {
+            System.err.println("Warning: Could not seed id generator for " + table + ": " + e.getMessage());
+        }
+    }
+}
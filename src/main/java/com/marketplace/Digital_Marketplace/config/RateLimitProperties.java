@@ -0,0 +1,51 @@
+package com.marketplace.Digital_Marketplace.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-route request limits (rate-limit.* in application.properties).
+ * A route with no per-user or per-ip limit is not limited on that key.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** Stripes per bucket table, rounded down to a power of two */
+    private int stripes = 64;
+
+    /** Upper bound on buckets per table; keys beyond it share an overflow bucket */
+    private long maxKeys = 100_000;
+
+    private long sweepIntervalMs = 60_000;
+
+    /** Checked in order; the first route matching the request applies */
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class Route {
+        /** HTTP method, or empty for any */
+        private String method;
+        /** Path patterns, e.g. /api/upload/{uploadId}/chunks/{chunkNumber} */
+        private List<String> paths = new ArrayList<>();
+        private Limit perUser;
+        private Limit perIp;
+    }
+
+    @Data
+    public static class Limit {
+        /** Requests allowed in a burst */
+        private long capacity;
+        /** Sustained requests per minute */
+        private double perMinute;
+    }
+}
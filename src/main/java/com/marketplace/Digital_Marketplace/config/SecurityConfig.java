@@ -1,9 +1,20 @@
 package com.marketplace.Digital_Marketplace.config;
 
+import com.marketplace.Digital_Marketplace.security.BoundedPasswordEncoder;
 import com.marketplace.Digital_Marketplace.security.CustomUserDetailsService;
+import com.marketplace.Digital_Marketplace.security.LoginThrottle;
+import com.marketplace.Digital_Marketplace.security.LoginThrottleFilter;
+import com.marketplace.Digital_Marketplace.security.PasswordHashingBusyException;
+import com.marketplace.Digital_Marketplace.security.RateLimitFilter;
+import com.marketplace.Digital_Marketplace.security.RateLimiter;
+import com.marketplace.Digital_Marketplace.security.SessionAttributesSuccessHandler;
+import com.marketplace.Digital_Marketplace.security.UploadAdmissionFilter;
+import com.marketplace.Digital_Marketplace.services.UploadAdmission;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -11,6 +22,13 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.ExceptionMappingAuthenticationFailureHandler;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.context.SecurityContextHolderFilter;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
@@ -19,13 +37,26 @@ public class SecurityConfig {
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
+    @Autowired
+    private LoginThrottle loginThrottle;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private UploadAdmission uploadAdmission;
+
+    @Value("${spring.servlet.multipart.max-request-size:50MB}")
+    private DataSize maxUploadRequestSize;
+
     @Bean
-    public AuthenticationManager authenticationManager(HttpSecurity http) throws Exception {
+    public AuthenticationManager authenticationManager(HttpSecurity http, PasswordEncoder passwordEncoder) throws Exception {
         AuthenticationManagerBuilder authenticationManagerBuilder = 
             http.getSharedObject(AuthenticationManagerBuilder.class);
+        // CustomUserDetailsService is also the UserDetailsPasswordService that stores upgraded hashes
         authenticationManagerBuilder
             .userDetailsService(customUserDetailsService)
-            .passwordEncoder(passwordEncoder());
+            .passwordEncoder(passwordEncoder);
         return authenticationManagerBuilder.build();
     }
 
@@ -38,8 +69,13 @@ public class SecurityConfig {
             // Configure authorization for endpoints
             .authorizeHttpRequests(authz -> authz
                 // Public pages - no authentication required
-                .requestMatchers("/", "/about", "/contact", "/css/**", "/js/**", "/images/**").permitAll()
+                .requestMatchers("/", "/search", "/about", "/contact", "/css/**", "/js/**", "/images/**").permitAll()
                 .requestMatchers("/login", "/register").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/products", "/api/products/**", "/api/suggest").permitAll()
+                
+                // Actuator - health is public for load balancers, metrics and caches are admin only
+                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 
                 // Seller routes - authentication required
                 .requestMatchers("/seller/**").authenticated()
@@ -48,13 +84,24 @@ public class SecurityConfig {
                 .anyRequest().authenticated()
             )
             
+            // Per-route limits (uploads, login, register) once the user is known, before any body is read
+            .addFilterAfter(new RateLimitFilter(rateLimiter), SecurityContextHolderFilter.class)
+            
+            // Reserve product upload bytes from Content-Length before the multipart body is parsed
+            .addFilterAfter(new UploadAdmissionFilter(uploadAdmission, "/seller/products/create",
+                maxUploadRequestSize.toBytes()), RateLimitFilter.class)
+            
+            // Throttle login posts per account before any password hashing
+            .addFilterBefore(new LoginThrottleFilter(loginThrottle, "/login", "username"),
+                UsernamePasswordAuthenticationFilter.class)
+            
             // Configure login
             .formLogin(form -> form
                 .loginPage("/login")
                 .usernameParameter("username")
                 .passwordParameter("password")
-                .defaultSuccessUrl("/", true)
-                .failureUrl("/login?error=invalid")
+                .successHandler(new SessionAttributesSuccessHandler("/"))
+                .failureHandler(loginFailureHandler())
                 .permitAll()
             )
             
@@ -70,8 +117,23 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * BCrypt on a bounded executor. Raising the strength re-hashes each user's
+     * password at their next successful login.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.password-hashing.bcrypt-strength:10}") int strength,
+            @Value("${security.password-hashing.pool-size:2}") int poolSize,
+            @Value("${security.password-hashing.queue-capacity:32}") int queueCapacity,
+            @Value("${security.password-hashing.max-wait:2s}") Duration maxWait) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, queueCapacity, maxWait);
+    }
+
+    private ExceptionMappingAuthenticationFailureHandler loginFailureHandler() {
+        ExceptionMappingAuthenticationFailureHandler handler = new ExceptionMappingAuthenticationFailureHandler();
+        handler.setDefaultFailureUrl("/login?error=invalid");
+        handler.setExceptionMappings(Map.of(PasswordHashingBusyException.class.getName(), "/login?error=busy"));
+        return handler;
     }
 }
@@ -0,0 +1,95 @@
+package com.marketplace.Digital_Marketplace.config;
+
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.GenericConversionService;
+import org.springframework.core.serializer.DefaultDeserializer;
+import org.springframework.core.serializer.DefaultSerializer;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * HTTP sessions live in MySQL (Spring Session JDBC), so a login is honoured by
+ * every node. Other state is still per node; see the SESSIONS section of
+ * application.properties for what a multi-node deployment must route or tolerate.
+ */
+@Configuration
+public class SessionConfig implements BeanClassLoaderAware {
+
+    private ClassLoader classLoader;
+
+    @Override
+    public void setBeanClassLoader(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Converts session attributes to and from the bytes stored by the JDBC session
+     * repository (picked up by bean name). Java serialization repeats class
+     * descriptors and field names, which deflate shrinks several-fold for the
+     * security context. Uses the bean class loader so devtools restarts can read
+     * application classes back.
+     */
+    @Bean(name = "springSessionConversionService")
+    public ConversionService springSessionConversionService(
+            @Value("${session.compression-level:1}") int compressionLevel) {
+        GenericConversionService conversionService = new GenericConversionService();
+        conversionService.addConverter(Object.class, byte[].class,
+                new SerializingConverter(new DeflatingSerializer(compressionLevel)));
+        conversionService.addConverter(byte[].class, Object.class,
+                new DeserializingConverter(new InflatingDeserializer(classLoader)));
+        return conversionService;
+    }
+
+    static class DeflatingSerializer implements Serializer<Object> {
+
+        private final Serializer<Object> delegate = new DefaultSerializer();
+        private final int level;
+
+        DeflatingSerializer(int level) {
+            this.level = level;
+        }
+
+        @Override
+        public void serialize(Object object, OutputStream outputStream) throws IOException {
+            Deflater deflater = new Deflater(level);
+            try (DeflaterOutputStream deflated = new DeflaterOutputStream(outputStream, deflater)) {
+                delegate.serialize(object, deflated);
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+
+    static class InflatingDeserializer implements Deserializer<Object> {
+
+        private final Deserializer<Object> delegate;
+
+        InflatingDeserializer(ClassLoader classLoader) {
+            this.delegate = new DefaultDeserializer(classLoader);
+        }
+
+        @Override
+        public Object deserialize(InputStream inputStream) throws IOException {
+            Inflater inflater = new Inflater();
+            try {
+                return delegate.deserialize(new InflaterInputStream(inputStream, inflater));
+            } finally {
+                inflater.end();
+            }
+        }
+    }
+}
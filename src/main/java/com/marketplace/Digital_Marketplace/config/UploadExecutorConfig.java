@@ -0,0 +1,36 @@
+package com.marketplace.Digital_Marketplace.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class UploadExecutorConfig {
+
+    /**
+     * Bounded executor for assembling and storing completed uploads.
+     * When the queue is full new jobs are rejected instead of piling onto request threads.
+     * In virtual-thread mode the workers are virtual threads; the pool size still caps concurrency.
+     */
+    @Bean(name = "uploadFinalizationExecutor")
+    public ThreadPoolTaskExecutor uploadFinalizationExecutor(
+            @Value("${upload.finalize.pool-size:2}") int poolSize,
+            @Value("${upload.finalize.queue-capacity:50}") int queueCapacity,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("upload-finalize-");
+        if (virtualThreads) {
+            executor.setThreadFactory(Thread.ofVirtual().name("upload-finalize-", 0).factory());
+        }
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -0,0 +1,82 @@
+package com.marketplace.Digital_Marketplace.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier, typically because they block
+ * on I/O inside a synchronized block or a native frame. Each event is logged with the
+ * first application frame so the offending service method can be found.
+ */
+@Component
+@ConditionalOnProperty(name = {"spring.threads.virtual.enabled", "app.threads.pinning-monitor.enabled"},
+                       havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final String APP_PACKAGE = "com.marketplace.Digital_Marketplace";
+
+    @Value("${app.threads.pinning-monitor.threshold-ms:20}")
+    private long thresholdMs;
+
+    private final AtomicLong pinnedEvents = new AtomicLong();
+
+    private RecordingStream stream;
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned")
+              .withThreshold(Duration.ofMillis(thresholdMs))
+              .withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::report);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    public long getPinnedEvents() {
+        return pinnedEvents.get();
+    }
+
+    private void report(RecordedEvent event) {
+        pinnedEvents.incrementAndGet();
+
+        String location = "unknown";
+        String appFrame = null;
+        if (event.getStackTrace() != null) {
+            List<RecordedFrame> frames = event.getStackTrace().getFrames();
+            if (!frames.isEmpty()) {
+                location = describe(frames.get(0));
+            }
+            for (RecordedFrame frame : frames) {
+                if (frame.getMethod().getType().getName().startsWith(APP_PACKAGE)) {
+                    appFrame = describe(frame);
+                    break;
+                }
+            }
+        }
+
+        System.err.println("Warning: virtual thread pinned for " + event.getDuration().toMillis() + "ms at "
+                + location + (appFrame != null ? " (from " + appFrame + ")" : ""));
+    }
+
+    private String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+}
@@ -1,10 +1,21 @@
 package com.marketplace.Digital_Marketplace.controllers;
 
+import com.marketplace.Digital_Marketplace.security.MarketplaceUserDetails;
 import com.marketplace.Digital_Marketplace.services.ChunkedUploadService;
+import com.marketplace.Digital_Marketplace.services.ProductService;
+import com.marketplace.Digital_Marketplace.services.StorageService;
+import com.marketplace.Digital_Marketplace.services.UploadCapacityException;
+import com.marketplace.Digital_Marketplace.services.UploadFinalizationService;
+import com.marketplace.Digital_Marketplace.services.UploadJob;
+import com.marketplace.Digital_Marketplace.services.UploadSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -12,6 +23,8 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
 
 @Controller
 @RequestMapping("/api/upload")
@@ -20,6 +33,15 @@ public class ChunkedUploadController {
     @Autowired
     private ChunkedUploadService chunkedUploadService;
 
+    @Autowired
+    private UploadFinalizationService uploadFinalizationService;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private ProductService productService;
+
     /**
      * Initialize a new chunked upload
      */
@@ -29,18 +51,45 @@ public class ChunkedUploadController {
             @RequestParam("fileName") String fileName,
             @RequestParam("fileSize") long fileSize,
             @RequestParam("contentType") String contentType,
-            @RequestParam("totalChunks") int totalChunks,
-            Authentication authentication) {
+            @RequestParam(value = "totalChunks", required = false) Integer totalChunks,
+            @RequestParam(value = "sha256", required = false) String sha256,
+            @AuthenticationPrincipal MarketplaceUserDetails principal) {
 
-        if (authentication == null || !authentication.isAuthenticated()) {
+        if (principal == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
+        // Identical content the seller already sells - no need to upload it again. Other sellers'
+        // blobs are never revealed, and the reference is taken only when a product uses the URL.
+        Optional<String> existing = storageService.findExisting(sha256)
+                .filter(url -> productService.findSellerFile(principal.getId(), url).isPresent());
+        if (existing.isPresent()) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "duplicate");
+            response.put("fileUrl", existing.get());
+            return ResponseEntity.ok(response);
+        }
+
         String uploadId = chunkedUploadService.generateUploadId();
 
+        UploadSession session;
+        try {
+            session = chunkedUploadService.initializeUpload(uploadId, principal.getId(), fileName, fileSize,
+                    contentType);
+        } catch (UploadCapacityException e) {
+            return uploadBusy(e);
+        } catch (IOException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", "Failed to initialize upload: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+
         Map<String, Object> response = new HashMap<>();
         response.put("uploadId", uploadId);
-        response.put("chunkSize", 1024 * 1024); // 1MB chunks
+        response.put("chunkSize", session.getChunkSize());
+        response.put("totalChunks", session.getTotalChunks());
+        response.put("maxConcurrentChunks", chunkedUploadService.getMaxConcurrentChunks());
         response.put("status", "initialized");
 
         return ResponseEntity.ok(response);
@@ -54,42 +103,59 @@ public class ChunkedUploadController {
     public ResponseEntity<Map<String, Object>> uploadChunk(
             @RequestParam("uploadId") String uploadId,
             @RequestParam("chunkNumber") int chunkNumber,
-            @RequestParam("totalChunks") int totalChunks,
-            @RequestParam("fileName") String fileName,
-            @RequestParam("contentType") String contentType,
-            @RequestParam("totalFileSize") long totalFileSize,
+            @RequestParam(value = "totalChunks", required = false) Integer totalChunks,
+            @RequestParam(value = "fileName", required = false) String fileName,
+            @RequestParam(value = "contentType", required = false) String contentType,
+            @RequestParam(value = "totalFileSize", required = false) Long totalFileSize,
             @RequestParam("chunk") MultipartFile chunk,
-            Authentication authentication) {
+            @AuthenticationPrincipal MarketplaceUserDetails principal) {
 
-        if (authentication == null || !authentication.isAuthenticated()) {
+        if (principal == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
         try {
-            // Check if chunk already exists
-            if (chunkedUploadService.chunkExists(uploadId, chunkNumber)) {
-                Map<String, Object> response = new HashMap<>();
-                response.put("status", "chunk_exists");
-                response.put("chunkNumber", chunkNumber);
-                return ResponseEntity.ok(response);
-            }
+            // Save the chunk unless it is already stored or being stored
+            ChunkedUploadService.SaveResult result = chunkedUploadService.saveChunk(uploadId, chunkNumber, chunk,
+                    principal.getId());
 
-            // Save the chunk
-            chunkedUploadService.saveChunk(uploadId, chunkNumber, totalChunks,
-                                         fileName, contentType, totalFileSize, chunk);
-
-            // Check if upload is complete
-            boolean isComplete = chunkedUploadService.isUploadComplete(uploadId, totalChunks);
-            int progress = chunkedUploadService.getUploadProgress(uploadId, totalChunks);
+            return chunkResponse(uploadId, chunkNumber, result);
 
+        } catch (UploadCapacityException e) {
+            return uploadBusy(e);
+        } catch (IOException e) {
             Map<String, Object> response = new HashMap<>();
-            response.put("status", isComplete ? "complete" : "chunk_uploaded");
-            response.put("chunkNumber", chunkNumber);
-            response.put("progress", progress);
-            response.put("uploadId", uploadId);
+            response.put("status", "error");
+            response.put("message", "Failed to save chunk: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
 
-            return ResponseEntity.ok(response);
+    /**
+     * Upload a chunk as a raw application/octet-stream body.
+     * The body is streamed to disk without multipart parsing or a heap copy of the chunk.
+     */
+    @PutMapping(value = "/{uploadId}/chunks/{chunkNumber}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> putChunk(
+            @PathVariable String uploadId,
+            @PathVariable int chunkNumber,
+            HttpServletRequest request,
+            @AuthenticationPrincipal MarketplaceUserDetails principal) {
+
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        try {
+            ChunkedUploadService.SaveResult result = chunkedUploadService.saveChunk(uploadId, chunkNumber,
+                    request.getInputStream(), request.getContentLengthLong(), principal.getId());
+
+            return chunkResponse(uploadId, chunkNumber, result);
 
+        } catch (UploadCapacityException e) {
+            // Refused before the body was read; the client backs off and resends the chunk
+            return uploadBusy(e);
         } catch (IOException e) {
             Map<String, Object> response = new HashMap<>();
             response.put("status", "error");
@@ -98,38 +164,124 @@ public class ChunkedUploadController {
         }
     }
 
+    private ResponseEntity<Map<String, Object>> chunkResponse(String uploadId, int chunkNumber,
+                                                              ChunkedUploadService.SaveResult result) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("chunkNumber", chunkNumber);
+        switch (result) {
+            case ALREADY_RECEIVED -> {
+                response.put("status", "chunk_exists");
+                return ResponseEntity.ok(response);
+            }
+            case IN_PROGRESS -> {
+                // Another request for the same chunk is still writing; retry to learn its outcome
+                response.put("status", "chunk_in_progress");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+            }
+            default -> {
+                return ResponseEntity.ok(chunkSavedResponse(uploadId, chunkNumber));
+            }
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> uploadBusy(UploadCapacityException e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "busy");
+        response.put("message", e.getMessage());
+        response.put("retryAfter", e.getRetryAfterSeconds());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(response);
+    }
+
+    private Map<String, Object> chunkSavedResponse(String uploadId, int chunkNumber) {
+        // Check if upload is complete
+        boolean isComplete = chunkedUploadService.isUploadComplete(uploadId);
+        int progress = chunkedUploadService.getUploadProgress(uploadId);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", isComplete ? "complete" : "chunk_uploaded");
+        response.put("chunkNumber", chunkNumber);
+        response.put("progress", progress);
+        response.put("uploadId", uploadId);
+        return response;
+    }
+
     /**
-     * Complete the upload and assemble the file
+     * Complete the upload. Assembly and storage run in the background;
+     * poll /jobs/{jobId} for the resulting file URL.
      */
     @PostMapping("/complete")
     @ResponseBody
     public ResponseEntity<Map<String, Object>> completeUpload(
             @RequestParam("uploadId") String uploadId,
             @RequestParam("folder") String folder,
-            Authentication authentication) {
+            @AuthenticationPrincipal MarketplaceUserDetails principal) {
 
-        if (authentication == null || !authentication.isAuthenticated()) {
+        if (principal == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
         try {
-            String fileUrl = chunkedUploadService.assembleAndStoreFile(uploadId, folder);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("status", "success");
-            response.put("fileUrl", fileUrl);
-            response.put("uploadId", uploadId);
+            UploadJob job = uploadFinalizationService.submit(uploadId, folder, principal.getId());
 
-            return ResponseEntity.ok(response);
+            Map<String, Object> response = jobResponse(job);
+            response.put("statusUrl", "/api/upload/jobs/" + job.getJobId());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
 
         } catch (IOException e) {
             Map<String, Object> response = new HashMap<>();
             response.put("status", "error");
-            response.put("message", "Failed to assemble file: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            response.put("message", "Failed to complete upload: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+
+        } catch (TaskRejectedException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "busy");
+            response.put("message", "Too many uploads are being finalized, please retry shortly");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(response);
         }
     }
 
+    /**
+     * Get the state of an upload finalization job
+     */
+    @GetMapping("/jobs/{jobId}")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getJob(
+            @PathVariable String jobId,
+            @AuthenticationPrincipal MarketplaceUserDetails principal) {
+
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        return uploadFinalizationService.getJob(jobId, principal.getId())
+                .map(job -> ResponseEntity.ok(jobResponse(job)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    private Map<String, Object> jobResponse(UploadJob job) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobId", job.getJobId());
+        response.put("uploadId", job.getUploadId());
+        response.put("state", job.getState().name());
+        switch (job.getState()) {
+            case SUCCEEDED -> {
+                response.put("status", "success");
+                response.put("fileUrl", job.getFileUrl());
+            }
+            case FAILED -> {
+                response.put("status", "error");
+                response.put("message", "Failed to assemble file: " + job.getError());
+            }
+            default -> response.put("status", "processing");
+        }
+        return response;
+    }
+
     /**
      * Get upload progress
      */
@@ -137,14 +289,18 @@ public class ChunkedUploadController {
     @ResponseBody
     public ResponseEntity<Map<String, Object>> getProgress(
             @PathVariable String uploadId,
-            @RequestParam("totalChunks") int totalChunks,
-            Authentication authentication) {
+            @RequestParam(value = "totalChunks", required = false) Integer totalChunks,
+            @AuthenticationPrincipal MarketplaceUserDetails principal) {
 
-        if (authentication == null || !authentication.isAuthenticated()) {
+        if (principal == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        int progress = chunkedUploadService.getUploadProgress(uploadId, totalChunks);
+        Optional<UploadSession> session = chunkedUploadService.getOwnedSession(uploadId, principal.getId());
+        if (session.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        int progress = session.get().getProgress();
 
         Map<String, Object> response = new HashMap<>();
         response.put("uploadId", uploadId);
@@ -161,18 +317,29 @@ public class ChunkedUploadController {
     @ResponseBody
     public ResponseEntity<Map<String, Object>> cancelUpload(
             @PathVariable String uploadId,
-            Authentication authentication) {
+            @AuthenticationPrincipal MarketplaceUserDetails principal) {
 
-        if (authentication == null || !authentication.isAuthenticated()) {
+        if (principal == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        // Note: In a real implementation, you'd want to clean up chunks
-        // For now, we'll just return success
+        Optional<UploadSession> session = chunkedUploadService.getOwnedSession(uploadId, principal.getId());
+        if (session.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        OptionalLong bytesReclaimed = chunkedUploadService.cancelUpload(session.get());
+        if (bytesReclaimed.isEmpty()) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", "Upload is already being finalized");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
 
         Map<String, Object> response = new HashMap<>();
         response.put("status", "cancelled");
         response.put("uploadId", uploadId);
+        response.put("bytesReclaimed", bytesReclaimed.getAsLong());
 
         return ResponseEntity.ok(response);
     }
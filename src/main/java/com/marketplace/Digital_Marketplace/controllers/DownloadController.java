@@ -0,0 +1,186 @@
+package com.marketplace.Digital_Marketplace.controllers;
+
+import com.marketplace.Digital_Marketplace.models.ProductFile;
+import com.marketplace.Digital_Marketplace.security.MarketplaceUserDetails;
+import com.marketplace.Digital_Marketplace.services.BlobStorageService;
+import com.marketplace.Digital_Marketplace.services.DownloadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Serves purchased product files with HTTP range support so interrupted downloads can resume.
+ * Local files are sent with sendfile when the connector supports it, otherwise via FileChannel.transferTo.
+ */
+@Controller
+public class DownloadController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private DownloadService downloadService;
+
+    /**
+     * Download a product file
+     */
+    @GetMapping("/downloads/files/{fileId}")
+    public void download(@PathVariable Long fileId,
+                         @AuthenticationPrincipal MarketplaceUserDetails principal,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+
+        if (principal == null) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+
+        DownloadService.Download download = downloadService.prepare(fileId, principal.getId());
+        ProductFile file = download.getFile();
+        Path path = download.getPath();
+
+        long length = Files.size(path);
+        long lastModified = Files.getLastModifiedTime(path).toMillis();
+        String etag = etagFor(file, length, lastModified);
+
+        // Answers If-None-Match / If-Modified-Since with 304 and sets ETag and Last-Modified
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        boolean partial = false;
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && length > 0 && ifRangeMatches(request, etag, lastModified)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                // Malformed ranges are ignored and the full file is sent
+                ranges = List.of();
+            }
+            // Multipart byteranges are not supported; the full file is a valid answer to them
+            if (ranges.size() == 1) {
+                try {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    partial = true;
+                } catch (IllegalArgumentException e) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+            }
+        }
+
+        boolean head = "HEAD".equalsIgnoreCase(request.getMethod());
+        long count = end - start + 1;
+
+        // Reserve the whole range up front so concurrent requests cannot overrun the limit;
+        // whatever is not actually written is refunded below
+        if (!head && !downloadService.recordDownload(download, count, length)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "Download limit reached");
+            return;
+        }
+
+        response.setStatus(partial ? HttpServletResponse.SC_PARTIAL_CONTENT : HttpServletResponse.SC_OK);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-transform");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(file.getFileName(), StandardCharsets.UTF_8)
+                .build()
+                .toString());
+        response.setContentType(file.getFileType() != null ? file.getFileType() : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setContentLengthLong(count);
+        if (partial) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        if (head || count == 0) {
+            return;
+        }
+
+        // Sendfile runs after the handler returns and cannot report how much it sent, so it is
+        // only used when nothing is being counted
+        if (download.getOrderItem() == null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat sends the file itself with sendfile once the handler returns
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        long remaining = count;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+            out.flush();
+        } finally {
+            // A dropped connection only costs what was written before it dropped
+            downloadService.refundDownload(download, remaining, length);
+        }
+    }
+
+    /**
+     * Blobs are named by their content hash; other files by size and modification time
+     */
+    private String etagFor(ProductFile file, long length, long lastModified) {
+        String url = file.getFileUrl();
+        if (url.startsWith(BlobStorageService.URL_PREFIX)) {
+            return "\"" + url.substring(url.lastIndexOf('/') + 1) + "\"";
+        }
+        return "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    /**
+     * A Range is only honoured if If-Range is absent or still matches the current representation
+     */
+    private boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // Range requests require a strong comparison
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
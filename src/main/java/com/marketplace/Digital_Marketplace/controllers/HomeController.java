@@ -1,16 +1,26 @@
 package com.marketplace.Digital_Marketplace.controllers;
 
+import com.marketplace.Digital_Marketplace.dtos.ProductDTO;
 import com.marketplace.Digital_Marketplace.models.User;
+import com.marketplace.Digital_Marketplace.services.CatalogFragmentCache;
+import com.marketplace.Digital_Marketplace.services.CatalogVersion;
 import com.marketplace.Digital_Marketplace.services.ProductService;
-import com.marketplace.Digital_Marketplace.services.CategoryService;
 import com.marketplace.Digital_Marketplace.services.AuthenticationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
+import java.time.Duration;
 
 @Controller
 public class HomeController {
@@ -19,25 +29,67 @@ public class HomeController {
     private ProductService productService;
     
     @Autowired
-    private CategoryService categoryService;
+    private AuthenticationService authenticationService;
     
     @Autowired
-    private AuthenticationService authenticationService;
+    private CatalogFragmentCache catalogFragmentCache;
+    
+    @Autowired
+    private CatalogVersion catalogVersion;
+    
+    @Value("${catalog.page-size:24}")
+    private int catalogPageSize;
+    
+    @Value("${web.public-pages.max-age:0s}")
+    private Duration publicPagesMaxAge;
     
     @GetMapping("/")
-    public String home(Model model) {
-        model.addAttribute("approvedProducts", productService.getApprovedProducts());
-        model.addAttribute("categories", categoryService.getAllCategories());
+    public String home(@RequestParam(value = "cursor", required = false) String cursor,
+                       HttpServletRequest request,
+                       HttpServletResponse response,
+                       WebRequest webRequest,
+                       Model model) {
+        if (notModified(catalogVersion.etag("home", cursor), request, response, webRequest)) {
+            return null;
+        }
+        String catalogHtml;
+        try {
+            catalogHtml = catalogFragmentCache.render(cursor);
+        } catch (IllegalArgumentException e) {
+            // Stale or tampered cursor - start from the newest products
+            catalogHtml = catalogFragmentCache.render(null);
+        }
+        model.addAttribute("catalogHtml", catalogHtml);
         return "index";
     }
     
+    @GetMapping("/search")
+    public String search(@RequestParam(value = "q", defaultValue = "") String query,
+                         @RequestParam(value = "page", defaultValue = "0") int page,
+                         Model model) {
+        Page<ProductDTO> results = productService.searchProducts(query, page, catalogPageSize);
+        model.addAttribute("query", query);
+        model.addAttribute("results", results.getContent());
+        model.addAttribute("totalHits", results.getTotalElements());
+        model.addAttribute("page", results.getNumber());
+        model.addAttribute("hasPrevious", results.hasPrevious());
+        model.addAttribute("hasNext", results.hasNext());
+        return "search";
+    }
+    
     @GetMapping("/about")
-    public String about() {
+    public String about(HttpServletRequest request, HttpServletResponse response, WebRequest webRequest) {
+        if (notModified(staticEtag("about"), request, response, webRequest)) {
+            return null;
+        }
         return "about";
     }
     
     @GetMapping("/contact")
-    public String contact() {
+    public String contact(HttpServletRequest request, HttpServletResponse response, WebRequest webRequest) {
+        if (notModified(staticEtag("contact"), request, response, webRequest)) {
+            return null;
+        }
         return "contact";
     }
     
@@ -115,6 +167,34 @@ public class HomeController {
         }
     }
     
+    /**
+     * Anonymous visitors all see the same page, so it gets a strong ETag and a
+     * shareable Cache-Control. Pages for signed-in users carry their name and
+     * are never stored by shared caches.
+     */
+    private boolean notModified(String etag, HttpServletRequest request, HttpServletResponse response,
+                                WebRequest webRequest) {
+        if (!isAnonymous(request)) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+            return false;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                CacheControl.maxAge(publicPagesMaxAge).cachePublic().mustRevalidate().getHeaderValue());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.COOKIE);
+        return webRequest.checkNotModified(etag);
+    }
+    
+    private boolean isAnonymous(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        return request.getUserPrincipal() == null
+                && (session == null || session.getAttribute("userId") == null);
+    }
+    
+    // Static pages only change with a deploy
+    private String staticEtag(String page) {
+        return "\"" + page + "-" + Long.toHexString(catalogVersion.getBootId()) + "\"";
+    }
+    
     @GetMapping("/logout")
     public String logout(HttpSession session) {
         // Clear all session attributes
@@ -0,0 +1,165 @@
+package com.marketplace.Digital_Marketplace.controllers;
+
+import com.marketplace.Digital_Marketplace.dtos.CursorPage;
+import com.marketplace.Digital_Marketplace.dtos.ProductDTO;
+import com.marketplace.Digital_Marketplace.models.ProductRatingStats;
+import com.marketplace.Digital_Marketplace.search.FacetFilter;
+import com.marketplace.Digital_Marketplace.search.FacetPage;
+import com.marketplace.Digital_Marketplace.search.FacetResult;
+import com.marketplace.Digital_Marketplace.search.ProductFacetIndex;
+import com.marketplace.Digital_Marketplace.search.ProductFacetService;
+import com.marketplace.Digital_Marketplace.services.ProductService;
+import com.marketplace.Digital_Marketplace.services.ReviewService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+@Controller
+@RequestMapping("/api/products")
+public class ProductApiController {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private ProductFacetService productFacetService;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    /**
+     * Approved catalog, newest first, paginated with an opaque cursor
+     */
+    @GetMapping
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> listProducts(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "24") int size) {
+
+        CursorPage<ProductDTO> page;
+        try {
+            page = productService.getApprovedProductPage(cursor, size);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("items", page.getItems());
+        response.put("nextCursor", page.getNextCursor());
+        response.put("hasMore", page.isHasMore());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/{id}")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getProduct(@PathVariable Long id) {
+        Map<String, Object> response = new HashMap<>();
+        return productService.getProductSummary(id)
+                .filter(product -> Boolean.TRUE.equals(product.getApproved()))
+                .map(product -> {
+                    response.put("product", product);
+                    return ResponseEntity.ok(response);
+                })
+                .orElseGet(() -> {
+                    response.put("status", "error");
+                    response.put("message", "Product not found");
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+                });
+    }
+
+    /**
+     * Rating histogram from the denormalized aggregate (no reviews scan)
+     */
+    @GetMapping("/{id}/ratings")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getRatings(@PathVariable Long id) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("productId", id);
+        ProductRatingStats stats = reviewService.getRatingStats(id).orElseGet(ProductRatingStats::new);
+        response.put("count", stats.getRatingCount());
+        response.put("average", stats.getAverageRating());
+        response.put("histogram", Map.of(
+                "1", stats.getStars1(), "2", stats.getStars2(), "3", stats.getStars3(),
+                "4", stats.getStars4(), "5", stats.getStars5()));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Filters by any combination of categories, price bands and minimum rating,
+     * with per-facet counts. Paged by product id, newest first.
+     */
+    @GetMapping("/filter")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> filter(
+            @RequestParam(value = "category", required = false) Set<Long> categoryIds,
+            @RequestParam(value = "priceBand", required = false) Set<Integer> priceBands,
+            @RequestParam(value = "minRating", required = false) Integer minRating,
+            @RequestParam(value = "before", required = false) Long beforeId,
+            @RequestParam(value = "size", defaultValue = "24") int size) {
+
+        FacetPage page = productFacetService.filter(new FacetFilter(categoryIds, priceBands, minRating),
+                                                    beforeId, size);
+        FacetResult facets = page.getFacets();
+
+        List<Map<String, Object>> priceBandFacets = new ArrayList<>();
+        List<BigDecimal> boundaries = productFacetIndex.getPriceBoundaries();
+        for (int band = 0; band < facets.getPriceBandCounts().length; band++) {
+            Map<String, Object> facet = new HashMap<>();
+            facet.put("band", band);
+            facet.put("min", band == 0 ? BigDecimal.ZERO : boundaries.get(band - 1));
+            facet.put("max", band < boundaries.size() ? boundaries.get(band) : null);
+            facet.put("count", facets.getPriceBandCounts()[band]);
+            priceBandFacets.add(facet);
+        }
+        Map<Integer, Long> ratingFacets = new TreeMap<>();
+        for (int rating = 1; rating < facets.getMinRatingCounts().length; rating++) {
+            ratingFacets.put(rating, facets.getMinRatingCounts()[rating]);
+        }
+
+        Map<String, Object> facetCounts = new HashMap<>();
+        facetCounts.put("categories", facets.getCategoryCounts());
+        facetCounts.put("priceBands", priceBandFacets);
+        facetCounts.put("minRating", ratingFacets);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("items", page.getItems());
+        response.put("totalHits", facets.getTotalHits());
+        response.put("hasMore", facets.isHasMore());
+        response.put("nextBefore", page.getNextBeforeId());
+        response.put("facets", facetCounts);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Ranked full-text search over approved products
+     */
+    @GetMapping("/search")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> search(
+            @RequestParam("q") String query,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "24") int size) {
+
+        Page<ProductDTO> results = productService.searchProducts(query, page, size);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("items", results.getContent());
+        response.put("page", results.getNumber());
+        response.put("size", results.getSize());
+        response.put("totalHits", results.getTotalElements());
+        response.put("hasMore", results.hasNext());
+        return ResponseEntity.ok(response);
+    }
+}
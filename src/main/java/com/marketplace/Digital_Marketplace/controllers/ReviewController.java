@@ -0,0 +1,114 @@
+package com.marketplace.Digital_Marketplace.controllers;
+
+import com.marketplace.Digital_Marketplace.models.Review;
+import com.marketplace.Digital_Marketplace.security.MarketplaceUserDetails;
+import com.marketplace.Digital_Marketplace.services.ReviewService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Buyers' reviews. Each write updates the product's rating aggregate in the same
+ * transaction (see ReviewService); GET /api/products/{id}/ratings reads it back.
+ */
+@Controller
+@RequestMapping("/api")
+public class ReviewController {
+
+    @Autowired
+    private ReviewService reviewService;
+
+    /**
+     * Review a purchased product
+     */
+    @PostMapping("/products/{productId}/reviews")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> createReview(
+            @PathVariable Long productId,
+            @RequestParam("rating") int rating,
+            @RequestParam(value = "comment", required = false) String comment,
+            @AuthenticationPrincipal MarketplaceUserDetails principal) {
+
+        if (principal == null) {
+            return error(HttpStatus.UNAUTHORIZED, "Not authenticated");
+        }
+        try {
+            Review review = reviewService.createReview(productId, principal.getId(), rating, comment);
+            return ResponseEntity.status(HttpStatus.CREATED).body(success(review));
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (ResponseStatusException e) {
+            return error(HttpStatus.valueOf(e.getStatusCode().value()), e.getReason());
+        }
+    }
+
+    /**
+     * Change the rating or comment of one's own review
+     */
+    @PutMapping("/reviews/{reviewId}")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> updateReview(
+            @PathVariable Long reviewId,
+            @RequestParam("rating") int rating,
+            @RequestParam(value = "comment", required = false) String comment,
+            @AuthenticationPrincipal MarketplaceUserDetails principal) {
+
+        if (principal == null) {
+            return error(HttpStatus.UNAUTHORIZED, "Not authenticated");
+        }
+        try {
+            Optional<Review> review = reviewService.updateReview(reviewId, principal.getId(), rating, comment);
+            if (review.isEmpty()) {
+                return error(HttpStatus.NOT_FOUND, "Review not found");
+            }
+            return ResponseEntity.ok(success(review.get()));
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Delete one's own review
+     */
+    @DeleteMapping("/reviews/{reviewId}")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> deleteReview(
+            @PathVariable Long reviewId,
+            @AuthenticationPrincipal MarketplaceUserDetails principal) {
+
+        if (principal == null) {
+            return error(HttpStatus.UNAUTHORIZED, "Not authenticated");
+        }
+        if (!reviewService.deleteReview(reviewId, principal.getId())) {
+            return error(HttpStatus.NOT_FOUND, "Review not found");
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("reviewId", reviewId);
+        return ResponseEntity.ok(response);
+    }
+
+    private Map<String, Object> success(Review review) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("reviewId", review.getId());
+        response.put("rating", review.getRating());
+        response.put("comment", review.getComment());
+        return response;
+    }
+
+    private ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "error");
+        response.put("message", message);
+        return ResponseEntity.status(status).body(response);
+    }
+}
@@ -1,23 +1,37 @@
 package com.marketplace.Digital_Marketplace.controllers;
 
+import com.marketplace.Digital_Marketplace.dtos.CursorPage;
+import com.marketplace.Digital_Marketplace.dtos.ImportReport;
+import com.marketplace.Digital_Marketplace.dtos.ProductDTO;
 import com.marketplace.Digital_Marketplace.models.Product;
 import com.marketplace.Digital_Marketplace.models.ProductFile;
 import com.marketplace.Digital_Marketplace.models.User;
 import com.marketplace.Digital_Marketplace.services.ProductService;
 import com.marketplace.Digital_Marketplace.services.CategoryService;
+import com.marketplace.Digital_Marketplace.services.ProductImportService;
 import com.marketplace.Digital_Marketplace.services.StorageService;
+import com.marketplace.Digital_Marketplace.services.UploadFinalizationService;
+import com.marketplace.Digital_Marketplace.services.UploadJob;
 import com.marketplace.Digital_Marketplace.repositories.UserRepository;
+import com.marketplace.Digital_Marketplace.security.MarketplaceUserDetails;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import jakarta.servlet.http.HttpServletRequest;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Controller
@@ -36,25 +50,36 @@ public class SellerController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private UploadFinalizationService uploadFinalizationService;
+
+    @Value("${seller.dashboard.page-size:50}")
+    private int dashboardPageSize;
+
     /**
      * Seller Dashboard - View all products
      */
     @GetMapping("/dashboard")
-    public String dashboard(Authentication authentication, Model model) {
-        if (authentication == null || !authentication.isAuthenticated()) {
+    public String dashboard(@RequestParam(value = "cursor", required = false) String cursor,
+                            @AuthenticationPrincipal MarketplaceUserDetails principal, Model model) {
+        if (principal == null) {
             return "redirect:/login";
         }
 
-        String username = authentication.getName();
-        Optional<User> user = userRepository.findByUsername(username);
-        if (user.isEmpty()) {
-            return "redirect:/login";
+        Long userId = principal.getId();
+        CursorPage<ProductDTO> page;
+        try {
+            page = productService.getSellerProductPage(userId, cursor, dashboardPageSize);
+        } catch (IllegalArgumentException e) {
+            page = productService.getSellerProductPage(userId, null, dashboardPageSize);
         }
-
-        Long userId = user.get().getId();
-        List<Product> sellerProducts = productService.getProductsBySeller(userId);
-        model.addAttribute("products", sellerProducts);
-        model.addAttribute("username", username);
+        model.addAttribute("products", page.getItems());
+        model.addAttribute("nextCursor", page.getNextCursor());
+        model.addAttribute("stats", productService.getSellerDashboardStats(userId));
+        model.addAttribute("username", principal.getUsername());
 
         return "seller/dashboard";
     }
@@ -63,56 +88,105 @@ public class SellerController {
      * Product Upload Form
      */
     @GetMapping("/products/create")
-    public String createProductForm(Authentication authentication, Model model) {
-        if (authentication == null || !authentication.isAuthenticated()) {
+    public String createProductForm(@AuthenticationPrincipal MarketplaceUserDetails principal, Model model) {
+        if (principal == null) {
             return "redirect:/login";
         }
 
         model.addAttribute("categories", categoryService.getAllCategories());
-        model.addAttribute("username", authentication.getName());
+        model.addAttribute("username", principal.getUsername());
 
         return "seller/upload";
     }
 
     /**
-     * Handle Product Upload
+     * Handle Product Upload. The product file is either posted as "file" or was already
+     * stored: "uploadJobId" names the seller's finished chunked upload, and "fileUrl"
+     * names identical content the seller already sells (a duplicate found at upload init).
      */
     @PostMapping("/products/create")
     public String uploadProduct(
-            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "file", required = false) MultipartFile file,
+            @RequestParam(value = "uploadJobId", required = false) String uploadJobId,
+            @RequestParam(value = "fileUrl", required = false) String storedFileUrl,
             @RequestParam("categoryId") Long categoryId,
             @RequestParam(value = "price", defaultValue = "0") BigDecimal price,
             @RequestParam(value = "name", defaultValue = "Product") String name,
             @RequestParam(value = "description", defaultValue = "Digital product") String description,
             @RequestParam(value = "previewImage", required = false) MultipartFile previewImage,
-            Authentication authentication,
+            @AuthenticationPrincipal MarketplaceUserDetails principal,
             Model model) {
 
-        if (authentication == null || !authentication.isAuthenticated()) {
+        if (principal == null) {
             return "redirect:/login";
         }
 
-        Optional<User> sellerOptional = userRepository.findByUsername(authentication.getName());
-        if (sellerOptional.isEmpty()) {
-            model.addAttribute("error", "Seller not found");
-            return "seller/upload";
-        }
-
+        // Files this request stored or claimed; they are discarded unless the product is created
+        List<String> storedUrls = new ArrayList<>();
+        boolean created = false;
         try {
-            User seller = sellerOptional.get();
+            // Only the foreign key is needed; no user query
+            User seller = userRepository.getReferenceById(principal.getId());
+
+            boolean hasFile = file != null && !file.isEmpty();
+            boolean hasPreview = previewImage != null && !previewImage.isEmpty();
+            boolean fromJob = !hasFile && uploadJobId != null && !uploadJobId.isBlank();
+            boolean fromStoredFile = !hasFile && !fromJob && storedFileUrl != null && !storedFileUrl.isBlank();
+
+            ProductFile productFile = new ProductFile();
+            productFile.setCreatedAt(LocalDateTime.now());
+            if (hasFile) {
+                productFile.setFileName(file.getOriginalFilename());
+                productFile.setFileSize(file.getSize());
+            } else if (fromJob) {
+                boolean finished = uploadFinalizationService.getJob(uploadJobId, principal.getId())
+                        .filter(job -> job.getState() == UploadJob.State.SUCCEEDED)
+                        .isPresent();
+                if (!finished) {
+                    return uploadFailed(model, "Upload not found or not finished");
+                }
+            } else if (fromStoredFile) {
+                // Only content the seller already holds may be reused, so a hash cannot unlock others' files
+                Optional<ProductFile> existing = productService.findSellerFile(principal.getId(), storedFileUrl);
+                if (existing.isEmpty()) {
+                    return uploadFailed(model, "File not found");
+                }
+                productFile.setFileUrl(storedFileUrl);
+                productFile.setFileName(existing.get().getFileName());
+                productFile.setFileSize(existing.get().getFileSize());
+            } else {
+                return uploadFailed(model, "Please choose a file to upload");
+            }
 
-            // Upload product file
-            String fileUrl = storageService.uploadFile(file, "products");
+            // The request's bytes were reserved by UploadAdmissionFilter before the multipart was parsed
+            if (hasFile) {
+                // Upload product file
+                productFile.setFileUrl(storageService.uploadFile(file, StorageService.PRODUCTS_FOLDER));
+                storedUrls.add(productFile.getFileUrl());
+            }
 
             // Upload preview image if provided
-            String previewImageUrl = null;
-            if (previewImage != null && !previewImage.isEmpty()) {
+            String previewImageUrl;
+            if (hasPreview) {
                 previewImageUrl = storageService.uploadFile(previewImage, "previews");
+                storedUrls.add(previewImageUrl);
             } else {
                 // Use placeholder image
                 previewImageUrl = "https://via.placeholder.com/300x300?text=Product+Image";
             }
 
+            if (fromJob) {
+                // The job's file already holds its stored reference, which passes to this product
+                Optional<UploadJob> job = uploadFinalizationService.claimResult(uploadJobId, principal.getId());
+                if (job.isEmpty()) {
+                    return uploadFailed(model, "Upload not found or not finished");
+                }
+                productFile.setFileUrl(job.get().getFileUrl());
+                storedUrls.add(productFile.getFileUrl());
+                productFile.setFileName(job.get().getFileName());
+                productFile.setFileSize(job.get().getFileSize());
+            }
+
             // Create product
             Product product = new Product();
             product.setName(name);
@@ -125,18 +199,16 @@ public class SellerController {
 
             product.setCategory(categoryService.getCategoryById(categoryId).orElse(null));
 
-            // Create product file record
-            ProductFile productFile = new ProductFile();
             productFile.setProduct(product);
-            productFile.setFileUrl(fileUrl);
-            productFile.setFileName(file.getOriginalFilename());
-            productFile.setFileSize(file.getSize());
-            productFile.setCreatedAt(LocalDateTime.now());
-
             product.getFiles().add(productFile);
 
-            // Save product
-            productService.createProduct(product);
+            // Save product; a reused file gets its reference in the same transaction
+            if (fromStoredFile) {
+                productService.createProductFromStoredFiles(product);
+            } else {
+                productService.createProduct(product);
+            }
+            created = true;
 
             model.addAttribute("success", "Product uploaded successfully! Awaiting admin approval.");
             model.addAttribute("categories", categoryService.getAllCategories());
@@ -144,35 +216,87 @@ public class SellerController {
             return "seller/upload";
 
         } catch (IOException e) {
-            model.addAttribute("error", "File upload failed: " + e.getMessage());
-            model.addAttribute("categories", categoryService.getAllCategories());
-            return "seller/upload";
+            return uploadFailed(model, "File upload failed: " + e.getMessage());
+        } finally {
+            if (!created) {
+                discardStoredFiles(storedUrls);
+            }
         }
     }
 
+    // Drops the files (and blob references) of a product that was never created
+    private void discardStoredFiles(List<String> fileUrls) {
+        for (String fileUrl : fileUrls) {
+            try {
+                storageService.deleteFile(fileUrl);
+            } catch (IOException e) {
+                System.err.println("Warning: Failed to discard stored file " + fileUrl + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private String uploadFailed(Model model, String message) {
+        model.addAttribute("error", message);
+        model.addAttribute("categories", categoryService.getAllCategories());
+        return "seller/upload";
+    }
+
     /**
-     * Edit Product
+     * Bulk import: streams text/csv (header row first) or application/x-ndjson
+     * (one JSON object per line) and reports errors per line
      */
-    @GetMapping("/products/{id}/edit")
-    public String editProductForm(@PathVariable Long id, Authentication authentication, Model model) {
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return "redirect:/login";
+    @PostMapping(value = "/products/import", consumes = {"text/csv", "application/x-ndjson"})
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> importProducts(@AuthenticationPrincipal MarketplaceUserDetails principal,
+                                                              HttpServletRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        if (principal == null) {
+            response.put("status", "error");
+            response.put("message", "Not authenticated");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
         }
 
-        Optional<User> user = userRepository.findByUsername(authentication.getName());
-        if (user.isEmpty()) {
+        String format = request.getContentType().startsWith("text/csv")
+                ? ProductImportService.FORMAT_CSV
+                : ProductImportService.FORMAT_NDJSON;
+        try {
+            ImportReport report = productImportService.importProducts(principal.getId(),
+                                                                      request.getInputStream(), format);
+            response.put("status", report.getFailed() == 0 ? "success" : "partial");
+            response.put("imported", report.getImported());
+            response.put("failed", report.getFailed());
+            response.put("errors", report.getErrors());
+            response.put("errorsTruncated", report.isErrorsTruncated());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (IOException e) {
+            response.put("status", "error");
+            response.put("message", "Failed to read import: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+    }
+
+    /**
+     * Edit Product
+     */
+    @GetMapping("/products/{id}/edit")
+    public String editProductForm(@PathVariable Long id, @AuthenticationPrincipal MarketplaceUserDetails principal, Model model) {
+        if (principal == null) {
             return "redirect:/login";
         }
 
-        Long userId = user.get().getId();
-        Optional<Product> product = productService.getProductById(id);
-        if (product.isEmpty() || !product.get().getSeller().getId().equals(userId)) {
+        Long userId = principal.getId();
+        Optional<ProductDTO> product = productService.getProductSummary(id);
+        if (product.isEmpty() || !product.get().getSellerId().equals(userId)) {
             return "redirect:/seller/dashboard";
         }
 
         model.addAttribute("product", product.get());
         model.addAttribute("categories", categoryService.getAllCategories());
-        model.addAttribute("username", authentication.getName());
+        model.addAttribute("username", principal.getUsername());
 
         return "seller/edit";
     }
@@ -181,19 +305,14 @@ public class SellerController {
      * Delete Product
      */
     @PostMapping("/products/{id}/delete")
-    public String deleteProduct(@PathVariable Long id, Authentication authentication) {
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return "redirect:/login";
-        }
-
-        Optional<User> user = userRepository.findByUsername(authentication.getName());
-        if (user.isEmpty()) {
+    public String deleteProduct(@PathVariable Long id, @AuthenticationPrincipal MarketplaceUserDetails principal) {
+        if (principal == null) {
             return "redirect:/login";
         }
 
-        Long userId = user.get().getId();
-        Optional<Product> product = productService.getProductById(id);
-        if (product.isPresent() && product.get().getSeller().getId().equals(userId)) {
+        Long userId = principal.getId();
+        Optional<ProductDTO> product = productService.getProductSummary(id);
+        if (product.isPresent() && product.get().getSellerId().equals(userId)) {
             productService.deleteProduct(id);
         }
 
@@ -0,0 +1,46 @@
+package com.marketplace.Digital_Marketplace.controllers;
+
+import com.marketplace.Digital_Marketplace.search.SuggestService;
+import com.marketplace.Digital_Marketplace.search.Suggestion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Controller
+@RequestMapping("/api/suggest")
+public class SuggestController {
+
+    @Autowired
+    private SuggestService suggestService;
+
+    /**
+     * Typeahead suggestions for the search box, served from memory.
+     * The ranking weight (sales count) stays server-side.
+     */
+    @GetMapping
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> suggest(
+            @RequestParam(value = "q", defaultValue = "") String query,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+
+        List<Map<String, Object>> suggestions = new ArrayList<>();
+        for (Suggestion suggestion : suggestService.suggest(query, limit)) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("type", suggestion.getType());
+            entry.put("id", suggestion.getId());
+            entry.put("text", suggestion.getText());
+            suggestions.add(entry);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("query", query);
+        response.put("suggestions", suggestions);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,24 @@
+package com.marketplace.Digital_Marketplace.dtos;
+
+import lombok.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. Errors are reported per input line, up to a cap.
+ */
+@Data
+@NoArgsConstructor
+public class ImportReport {
+    private long imported;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    @Data
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
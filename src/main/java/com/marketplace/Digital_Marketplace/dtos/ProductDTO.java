@@ -2,6 +2,7 @@ package com.marketplace.Digital_Marketplace.dtos;
 
 import lombok.*;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Data
 @NoArgsConstructor
@@ -15,4 +16,13 @@ public class ProductDTO {
     private Long sellerId;
     private Long categoryId;
     private Boolean approved;
+    private String sellerUsername;
+    private String categoryName;
+    private LocalDateTime createdAt;
+    private Long ratingCount;
+    private Long ratingSum;
+
+    public double getAverageRating() {
+        return ratingCount == null || ratingCount == 0 ? 0.0 : (double) ratingSum / ratingCount;
+    }
 }
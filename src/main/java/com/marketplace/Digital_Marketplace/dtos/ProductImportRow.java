@@ -0,0 +1,22 @@
+package com.marketplace.Digital_Marketplace.dtos;
+
+import lombok.*;
+import java.math.BigDecimal;
+
+/**
+ * One product in a bulk import (a CSV row or a JSON line). category is a name or an id.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportRow {
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private String category;
+    private String previewImageUrl;
+    private String fileUrl;
+    private String fileName;
+    private String fileType;
+    private Long fileSize;
+}
@@ -0,0 +1,23 @@
+package com.marketplace.Digital_Marketplace.dtos;
+
+import lombok.*;
+
+/**
+ * Totals shown at the top of the seller dashboard, computed in one query
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellerDashboardStats {
+    private Long totalProducts;
+    private Long approvedProducts;
+    private Long pendingProducts;
+    private Long fileCount;
+    private Long bytesStored;
+    private Long ratingCount;
+    private Long ratingSum;
+
+    public double getAverageRating() {
+        return ratingCount == null || ratingCount == 0 ? 0.0 : (double) ratingSum / ratingCount;
+    }
+}
@@ -0,0 +1,17 @@
+package com.marketplace.Digital_Marketplace.events;
+
+import lombok.*;
+
+/**
+ * Published by CategoryService whenever a category is written
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class CategoryChangedEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private final Long categoryId;
+    private final Type type;
+}
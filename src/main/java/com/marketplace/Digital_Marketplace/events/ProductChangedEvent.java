@@ -0,0 +1,21 @@
+package com.marketplace.Digital_Marketplace.events;
+
+import lombok.*;
+
+/**
+ * Published by ProductService whenever a product is written, so read-side
+ * structures (search index, caches) can follow the catalog
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class ProductChangedEvent {
+
+    // REVIEWED: only the rating aggregate changed
+    public enum Type { CREATED, UPDATED, APPROVED, DELETED, REVIEWED }
+
+    private final Long productId;
+    // Owning seller when known; listeners treat null as "any seller"
+    private final Long sellerId;
+    private final Type type;
+}
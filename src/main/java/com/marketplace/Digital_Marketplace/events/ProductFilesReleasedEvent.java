@@ -0,0 +1,18 @@
+package com.marketplace.Digital_Marketplace.events;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Published by ProductService when rows referring to stored files are deleted,
+ * so the references are dropped only once the delete has committed
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class ProductFilesReleasedEvent {
+
+    private final Long productId;
+    private final List<String> fileUrls;
+}
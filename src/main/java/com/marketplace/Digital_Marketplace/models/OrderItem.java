@@ -0,0 +1,44 @@
+package com.marketplace.Digital_Marketplace.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "order_items")
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false)
+    private Order order;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+    
+    @Column(name = "price_at_purchase", nullable = false, precision = 10, scale = 2)
+    private BigDecimal priceAtPurchase;
+    
+    @Column(name = "download_url")
+    private String downloadUrl;
+    
+    @Column(name = "download_count")
+    private Integer downloadCount = 0;
+    
+    @Column(name = "download_limit")
+    private Integer downloadLimit = 5;
+    
+    // Bytes sent so far; the limit allows downloadLimit copies of all the product's files
+    @Column(name = "downloaded_bytes")
+    private Long downloadedBytes = 0L;
+    
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
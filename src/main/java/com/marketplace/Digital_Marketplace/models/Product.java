@@ -7,13 +7,19 @@ import java.time.LocalDateTime;
 import java.util.*;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    @Index(name = "idx_products_approved_created", columnList = "approved, created_at, id"),
+    @Index(name = "idx_products_seller_created", columnList = "seller_id, created_at, id")
+})
 @Getter @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Product {
+    // Table ids allocated 50 at a time, so inserts can be JDBC-batched (IDENTITY forces one round trip per row)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "product_ids")
+    @TableGenerator(name = "product_ids", table = "id_generators", pkColumnName = "entity",
+                    valueColumnName = "next_val", pkColumnValue = "products", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -36,11 +42,11 @@ public class Product {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt = LocalDateTime.now();
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "seller_id", nullable = false)
     private User seller;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
     
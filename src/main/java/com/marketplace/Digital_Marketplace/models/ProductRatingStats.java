@@ -0,0 +1,48 @@
+package com.marketplace.Digital_Marketplace.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized rating aggregate per product, maintained by ReviewService in the
+ * same transaction as each review write and rebuilt periodically from reviews
+ */
+@Entity
+@Table(name = "product_rating_stats")
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductRatingStats {
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+    
+    @Column(name = "rating_count", nullable = false)
+    private Long ratingCount = 0L;
+    
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum = 0L;
+    
+    @Column(name = "stars_1", nullable = false)
+    private Long stars1 = 0L;
+    
+    @Column(name = "stars_2", nullable = false)
+    private Long stars2 = 0L;
+    
+    @Column(name = "stars_3", nullable = false)
+    private Long stars3 = 0L;
+    
+    @Column(name = "stars_4", nullable = false)
+    private Long stars4 = 0L;
+    
+    @Column(name = "stars_5", nullable = false)
+    private Long stars5 = 0L;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt = LocalDateTime.now();
+    
+    public double getAverageRating() {
+        return ratingCount == null || ratingCount == 0 ? 0.0 : (double) ratingSum / ratingCount;
+    }
+}
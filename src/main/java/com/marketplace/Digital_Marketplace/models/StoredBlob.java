@@ -0,0 +1,28 @@
+package com.marketplace.Digital_Marketplace.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stored_blobs")
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredBlob {
+    @Id
+    @Column(length = 64)
+    private String hash; // hex SHA-256 of the content
+    
+    @Column(name = "storage_path", nullable = false, length = 500)
+    private String storagePath;
+    
+    @Column(nullable = false)
+    private Long size;
+    
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount = 1;
+    
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
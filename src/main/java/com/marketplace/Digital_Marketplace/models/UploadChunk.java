@@ -5,7 +5,11 @@ import lombok.Data;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "upload_chunks")
+@Table(name = "upload_chunks", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_upload_chunks_upload_chunk", columnNames = {"upload_id", "chunk_number"})
+}, indexes = {
+        @Index(name = "idx_upload_chunks_upload_activity", columnList = "upload_id, uploaded_at")
+})
 @Data
 public class UploadChunk {
 
@@ -16,6 +20,9 @@ public class UploadChunk {
     @Column(nullable = false)
     private String uploadId;
 
+    @Column(name = "seller_id")
+    private Long sellerId; // user who initialized the upload
+
     @Column(nullable = false)
     private int chunkNumber;
 
@@ -32,7 +39,10 @@ public class UploadChunk {
     private long totalFileSize;
 
     @Column(nullable = false)
-    private long chunkSize;
+    private long chunkSize; // bytes in this chunk; the last one may be short
+
+    @Column(name = "session_chunk_size")
+    private Integer sessionChunkSize; // chunk size negotiated at init, shared by every chunk of the upload
 
     @Column(nullable = false)
     private String chunkPath; // path to the temp chunk file on disk
@@ -1,11 +1,18 @@
 package com.marketplace.Digital_Marketplace.repositories;
 
+import com.marketplace.Digital_Marketplace.dtos.CategoryDTO;
 import com.marketplace.Digital_Marketplace.models.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     Optional<Category> findByName(String name);
+
+    @Query("SELECT new com.marketplace.Digital_Marketplace.dtos.CategoryDTO(" +
+           "c.id, c.name, c.description, c.allowedFileTypes) FROM Category c ORDER BY c.id")
+    List<CategoryDTO> findAllSummaries();
 }
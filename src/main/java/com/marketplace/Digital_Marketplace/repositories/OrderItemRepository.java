@@ -0,0 +1,56 @@
+package com.marketplace.Digital_Marketplace.repositories;
+
+import com.marketplace.Digital_Marketplace.models.OrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    @Query("SELECT oi FROM OrderItem oi WHERE oi.order.user.id = :userId AND oi.product.id = :productId " +
+           "AND oi.order.paymentStatus IN :statuses ORDER BY oi.createdAt DESC")
+    List<OrderItem> findPurchases(@Param("userId") Long userId,
+                                  @Param("productId") Long productId,
+                                  @Param("statuses") Collection<String> statuses);
+
+    // Paid sales per product, used to weight typeahead suggestions
+    @Query("SELECT oi.product.id, COUNT(oi) FROM OrderItem oi " +
+           "WHERE oi.order.paymentStatus IN :statuses GROUP BY oi.product.id")
+    List<Object[]> countSalesByProduct(@Param("statuses") Collection<String> statuses);
+
+    @Query("SELECT COUNT(oi) FROM OrderItem oi WHERE oi.product.id = :productId " +
+           "AND oi.order.paymentStatus IN :statuses")
+    long countSales(@Param("productId") Long productId, @Param("statuses") Collection<String> statuses);
+
+    /**
+     * Reserve bytes about to be sent against downloadLimit full copies of the product.
+     * downloadCount becomes the number of copies started; it is assigned first because
+     * MySQL evaluates SET clauses left to right against already updated columns.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE OrderItem oi " +
+           "SET oi.downloadCount = CAST(FLOOR((COALESCE(oi.downloadedBytes, 0) + :bytes + :copySize - 1) / :copySize) " +
+           "AS Integer), " +
+           "oi.downloadedBytes = COALESCE(oi.downloadedBytes, 0) + :bytes " +
+           "WHERE oi.id = :id AND COALESCE(oi.downloadedBytes, 0) + :bytes <= oi.downloadLimit * :copySize")
+    int addDownloadedBytes(@Param("id") Long id, @Param("bytes") long bytes, @Param("copySize") long copySize);
+
+    /**
+     * Give back reserved bytes that were never sent
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE OrderItem oi " +
+           "SET oi.downloadCount = CAST(FLOOR((oi.downloadedBytes - :bytes + :copySize - 1) / :copySize) AS Integer), " +
+           "oi.downloadedBytes = oi.downloadedBytes - :bytes " +
+           "WHERE oi.id = :id AND oi.downloadedBytes >= :bytes")
+    int refundDownloadedBytes(@Param("id") Long id, @Param("bytes") long bytes, @Param("copySize") long copySize);
+}
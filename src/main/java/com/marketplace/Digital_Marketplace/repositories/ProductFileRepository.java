@@ -0,0 +1,22 @@
+package com.marketplace.Digital_Marketplace.repositories;
+
+import com.marketplace.Digital_Marketplace.models.ProductFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ProductFileRepository extends JpaRepository<ProductFile, Long> {
+
+    @Query("SELECT f FROM ProductFile f JOIN FETCH f.product p WHERE f.id = :id")
+    Optional<ProductFile> findWithProductById(@Param("id") Long id);
+
+    Optional<ProductFile> findFirstByFileUrlAndProductSellerId(String fileUrl, Long sellerId);
+
+    // One full copy of a product, the unit its download limit is counted in
+    @Query("SELECT COALESCE(SUM(f.fileSize), 0) FROM ProductFile f WHERE f.product.id = :productId")
+    long sumFileSizeByProductId(@Param("productId") Long productId);
+}
@@ -0,0 +1,63 @@
+package com.marketplace.Digital_Marketplace.repositories;
+
+import com.marketplace.Digital_Marketplace.models.ProductRatingStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface ProductRatingStatsRepository extends JpaRepository<ProductRatingStats, Long> {
+
+    /**
+     * Adds a delta to a product's aggregate, creating the row on first use.
+     * A single upsert, so concurrent first reviews cannot race on the insert.
+     * Joins the caller's transaction.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO product_rating_stats " +
+                   "(product_id, rating_count, rating_sum, stars_1, stars_2, stars_3, stars_4, stars_5, updated_at) " +
+                   "VALUES (:productId, :count, :sum, :s1, :s2, :s3, :s4, :s5, NOW()) " +
+                   "ON DUPLICATE KEY UPDATE rating_count = rating_count + :count, rating_sum = rating_sum + :sum, " +
+                   "stars_1 = stars_1 + :s1, stars_2 = stars_2 + :s2, stars_3 = stars_3 + :s3, " +
+                   "stars_4 = stars_4 + :s4, stars_5 = stars_5 + :s5, updated_at = NOW()",
+           nativeQuery = true)
+    int applyDelta(@Param("productId") Long productId,
+                   @Param("count") long count,
+                   @Param("sum") long sum,
+                   @Param("s1") long stars1,
+                   @Param("s2") long stars2,
+                   @Param("s3") long stars3,
+                   @Param("s4") long stars4,
+                   @Param("s5") long stars5);
+
+    /**
+     * Bulk delete, so it does not fail when the FK cascade has already removed the row.
+     * Joins the caller's transaction.
+     */
+    @Modifying
+    @Query("DELETE FROM ProductRatingStats s WHERE s.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+
+    // Drift repair: recompute every aggregate from the reviews table
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO product_rating_stats " +
+                   "(product_id, rating_count, rating_sum, stars_1, stars_2, stars_3, stars_4, stars_5, updated_at) " +
+                   "SELECT product_id, COUNT(*), SUM(rating), SUM(rating = 1), SUM(rating = 2), SUM(rating = 3), " +
+                   "SUM(rating = 4), SUM(rating = 5), NOW() FROM reviews GROUP BY product_id " +
+                   "ON DUPLICATE KEY UPDATE rating_count = VALUES(rating_count), rating_sum = VALUES(rating_sum), " +
+                   "stars_1 = VALUES(stars_1), stars_2 = VALUES(stars_2), stars_3 = VALUES(stars_3), " +
+                   "stars_4 = VALUES(stars_4), stars_5 = VALUES(stars_5), updated_at = NOW()",
+           nativeQuery = true)
+    int rebuildFromReviews();
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM product_rating_stats " +
+                   "WHERE product_id NOT IN (SELECT DISTINCT product_id FROM reviews)",
+           nativeQuery = true)
+    int deleteWithoutReviews();
+}
@@ -1,18 +1,69 @@
 package com.marketplace.Digital_Marketplace.repositories;
 
+import com.marketplace.Digital_Marketplace.dtos.ProductDTO;
+import com.marketplace.Digital_Marketplace.dtos.SellerDashboardStats;
 import com.marketplace.Digital_Marketplace.models.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+    // Catalog reads return flat projections: one statement per page, no entity graph
+    String SUMMARY_SELECT = "SELECT new com.marketplace.Digital_Marketplace.dtos.ProductDTO(" +
+            "p.id, p.name, p.description, p.price, p.previewImageUrl, s.id, c.id, p.approved, " +
+            "s.username, c.name, p.createdAt, COALESCE(r.ratingCount, 0L), COALESCE(r.ratingSum, 0L)) " +
+            "FROM Product p JOIN p.seller s LEFT JOIN p.category c " +
+            "LEFT JOIN ProductRatingStats r ON r.productId = p.id ";
+    
     List<Product> findBySellerId(Long sellerId);
     List<Product> findByCategoryId(Long categoryId);
     List<Product> findByApprovedTrue();
     
-    @Query("SELECT p FROM Product p WHERE p.name LIKE %:keyword% OR p.description LIKE %:keyword%")
-    List<Product> searchProducts(@Param("keyword") String keyword);
+    @Query("SELECT c.id, COUNT(p) FROM Product p JOIN p.category c WHERE p.approved = true GROUP BY c.id")
+    List<Object[]> countApprovedByCategory();
+    
+    // Keyset pagination over approved products, newest first
+    @Query(SUMMARY_SELECT + "WHERE p.approved = true ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProductDTO> findApprovedFirstPage(Limit limit);
+    
+    @Query(SUMMARY_SELECT + "WHERE p.approved = true " +
+           "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProductDTO> findApprovedAfter(@Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       Limit limit);
+    
+    // Keyset pagination over one seller's products, newest first
+    @Query(SUMMARY_SELECT + "WHERE s.id = :sellerId ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProductDTO> findSellerFirstPage(@Param("sellerId") Long sellerId, Limit limit);
+    
+    @Query(SUMMARY_SELECT + "WHERE s.id = :sellerId " +
+           "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProductDTO> findSellerAfter(@Param("sellerId") Long sellerId,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     Limit limit);
+    
+    // Whole seller dashboard header in one statement; file totals come from a scalar subquery
+    // so joining files cannot multiply the product counts
+    @Query("SELECT new com.marketplace.Digital_Marketplace.dtos.SellerDashboardStats(" +
+           "COUNT(p), " +
+           "COALESCE(SUM(CASE WHEN p.approved = true THEN 1L ELSE 0L END), 0L), " +
+           "COALESCE(SUM(CASE WHEN p.approved = true THEN 0L ELSE 1L END), 0L), " +
+           "(SELECT COUNT(f) FROM ProductFile f WHERE f.product.seller.id = :sellerId), " +
+           "(SELECT COALESCE(SUM(f.fileSize), 0L) FROM ProductFile f WHERE f.product.seller.id = :sellerId), " +
+           "COALESCE(SUM(r.ratingCount), 0L), COALESCE(SUM(r.ratingSum), 0L)) " +
+           "FROM Product p LEFT JOIN ProductRatingStats r ON r.productId = p.id " +
+           "WHERE p.seller.id = :sellerId")
+    SellerDashboardStats getSellerDashboardStats(@Param("sellerId") Long sellerId);
+    
+    @Query(SUMMARY_SELECT + "WHERE p.id IN :ids")
+    List<ProductDTO> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -9,4 +9,5 @@ import java.util.List;
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findByProductId(Long productId);
     List<Review> findByReviewerId(Long reviewerId);
+    boolean existsByProductIdAndReviewerId(Long productId, Long reviewerId);
 }
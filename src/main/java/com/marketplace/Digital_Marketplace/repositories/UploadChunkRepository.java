@@ -1,17 +1,23 @@
 package com.marketplace.Digital_Marketplace.repositories;
 
 import com.marketplace.Digital_Marketplace.models.UploadChunk;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UploadChunkRepository extends JpaRepository<UploadChunk, Long> {
 
+    List<UploadChunk> findByUploadId(String uploadId);
+
     List<UploadChunk> findByUploadIdOrderByChunkNumber(String uploadId);
 
     Optional<UploadChunk> findByUploadIdAndChunkNumber(String uploadId, int chunkNumber);
@@ -22,7 +28,15 @@ public interface UploadChunkRepository extends JpaRepository<UploadChunk, Long>
     @Query("SELECT COUNT(DISTINCT c.chunkNumber) FROM UploadChunk c WHERE c.uploadId = :uploadId")
     long countDistinctChunksByUploadId(@Param("uploadId") String uploadId);
 
-    void deleteByUploadId(String uploadId);
+    long countByUploadId(String uploadId);
+
+    @Query("SELECT c.uploadId FROM UploadChunk c GROUP BY c.uploadId HAVING MAX(c.uploadedAt) < :cutoff")
+    List<String> findUploadIdsIdleSince(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM UploadChunk c WHERE c.uploadId = :uploadId")
+    int deleteByUploadId(@Param("uploadId") String uploadId);
 
     boolean existsByUploadIdAndChunkNumber(String uploadId, int chunkNumber);
 }
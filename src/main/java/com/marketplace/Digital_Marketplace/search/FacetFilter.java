@@ -0,0 +1,16 @@
+package com.marketplace.Digital_Marketplace.search;
+
+import lombok.*;
+import java.util.Set;
+
+/**
+ * Selected facets. Values within a dimension are OR-ed, dimensions are AND-ed;
+ * an empty set or null means the dimension is not filtered.
+ */
+@Getter
+@AllArgsConstructor
+public class FacetFilter {
+    private final Set<Long> categoryIds;
+    private final Set<Integer> priceBands;
+    private final Integer minRating;
+}
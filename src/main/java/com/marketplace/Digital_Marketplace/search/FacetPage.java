@@ -0,0 +1,16 @@
+package com.marketplace.Digital_Marketplace.search;
+
+import com.marketplace.Digital_Marketplace.dtos.ProductDTO;
+import lombok.*;
+import java.util.List;
+
+/**
+ * Hydrated page of a facet query. nextBeforeId is null on the last page.
+ */
+@Getter
+@AllArgsConstructor
+public class FacetPage {
+    private final List<ProductDTO> items;
+    private final Long nextBeforeId;
+    private final FacetResult facets;
+}
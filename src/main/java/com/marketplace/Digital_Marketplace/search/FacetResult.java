@@ -0,0 +1,22 @@
+package com.marketplace.Digital_Marketplace.search;
+
+import lombok.*;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of filtered product ids (id descending) plus counts per facet value.
+ * Each dimension's counts apply the other dimensions' filters but not its own,
+ * so the UI can show how many results switching that facet would give.
+ */
+@Getter
+@AllArgsConstructor
+public class FacetResult {
+    private final List<Long> productIds;
+    private final boolean hasMore;
+    private final long totalHits;
+    private final Map<Long, Long> categoryCounts;
+    private final long[] priceBandCounts;
+    // Index r = products rated at least r stars (1..5)
+    private final long[] minRatingCounts;
+}
@@ -0,0 +1,249 @@
+package com.marketplace.Digital_Marketplace.search;
+
+import jakarta.annotation.PostConstruct;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed bitmaps of approved product ids, one per category, price band
+ * and rating bucket. A filter is a handful of bitmap ORs and ANDs whose cost
+ * depends on the bitmaps' compressed size, not on a SQL plan.
+ */
+@Component
+public class ProductFacetIndex {
+
+    private static final int RATING_BUCKETS = 6; // floor(average): 0 = unrated, 1..5
+
+    @Value("${facets.price-bands:5,10,25,50,100}")
+    private List<BigDecimal> priceBoundaries;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final Map<Long, RoaringBitmap> byCategory = new HashMap<>();
+    private RoaringBitmap[] byPriceBand;
+    private final RoaringBitmap[] byRating = new RoaringBitmap[RATING_BUCKETS];
+    // Where each product currently sits, so an update can clear its old bits
+    private final Map<Integer, int[]> placements = new HashMap<>();
+
+    private static final int NO_CATEGORY = -1;
+
+    @PostConstruct
+    public void init() {
+        priceBoundaries = priceBoundaries.stream().sorted().toList();
+        byPriceBand = new RoaringBitmap[priceBoundaries.size() + 1];
+        for (int i = 0; i < byPriceBand.length; i++) {
+            byPriceBand[i] = new RoaringBitmap();
+        }
+        for (int i = 0; i < RATING_BUCKETS; i++) {
+            byRating[i] = new RoaringBitmap();
+        }
+    }
+
+    /**
+     * Band i covers [boundary[i-1], boundary[i]); the last band is open-ended
+     */
+    public List<BigDecimal> getPriceBoundaries() {
+        return priceBoundaries;
+    }
+
+    public int priceBandCount() {
+        return byPriceBand.length;
+    }
+
+    public void put(Long productId, Long categoryId, BigDecimal price, double averageRating) {
+        int id = toBitmapId(productId);
+        if (id < 0) {
+            return;
+        }
+        int band = priceBand(price);
+        int ratingBucket = (int) Math.floor(Math.min(Math.max(averageRating, 0), 5));
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            all.add(id);
+            if (categoryId != null) {
+                byCategory.computeIfAbsent(categoryId, key -> new RoaringBitmap()).add(id);
+            }
+            byPriceBand[band].add(id);
+            byRating[ratingBucket].add(id);
+            placements.put(id, new int[] {categoryId == null ? NO_CATEGORY : Math.toIntExact(categoryId), band, ratingBucket});
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        int id = toBitmapId(productId);
+        if (id < 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            all.clear();
+            byCategory.clear();
+            for (RoaringBitmap bitmap : byPriceBand) {
+                bitmap.clear();
+            }
+            for (RoaringBitmap bitmap : byRating) {
+                bitmap.clear();
+            }
+            placements.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param beforeId only ids below this are returned (keyset cursor); null for the first page
+     */
+    public FacetResult filter(FacetFilter filter, Long beforeId, int pageSize) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap categoryMask = categoryMask(filter.getCategoryIds());
+            RoaringBitmap priceMask = priceMask(filter.getPriceBands());
+            RoaringBitmap ratingMask = ratingAtLeast(filter.getMinRating());
+
+            RoaringBitmap matches = and(categoryMask, priceMask, ratingMask);
+
+            Map<Long, Long> categoryCounts = new HashMap<>();
+            RoaringBitmap withoutCategory = and(null, priceMask, ratingMask);
+            for (Map.Entry<Long, RoaringBitmap> entry : byCategory.entrySet()) {
+                long count = RoaringBitmap.andCardinality(entry.getValue(), withoutCategory);
+                if (count > 0) {
+                    categoryCounts.put(entry.getKey(), count);
+                }
+            }
+            long[] priceBandCounts = new long[byPriceBand.length];
+            RoaringBitmap withoutPrice = and(categoryMask, null, ratingMask);
+            for (int i = 0; i < byPriceBand.length; i++) {
+                priceBandCounts[i] = RoaringBitmap.andCardinality(byPriceBand[i], withoutPrice);
+            }
+            long[] minRatingCounts = new long[RATING_BUCKETS];
+            RoaringBitmap withoutRating = and(categoryMask, priceMask, null);
+            for (int r = 1; r < RATING_BUCKETS; r++) {
+                minRatingCounts[r] = RoaringBitmap.andCardinality(ratingAtLeast(r), withoutRating);
+            }
+
+            long totalHits = matches.getLongCardinality();
+            if (beforeId != null) {
+                matches.and(RoaringBitmap.bitmapOfRange(0, Math.min(beforeId, (long) Integer.MAX_VALUE + 1)));
+            }
+            List<Long> page = new ArrayList<>(pageSize);
+            IntIterator newestFirst = matches.getReverseIntIterator();
+            while (newestFirst.hasNext() && page.size() <= pageSize) {
+                page.add((long) newestFirst.next());
+            }
+            boolean hasMore = page.size() > pageSize;
+            if (hasMore) {
+                page = page.subList(0, pageSize);
+            }
+            return new FacetResult(List.copyOf(page), hasMore, totalHits,
+                                   categoryCounts, priceBandCounts, minRatingCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap categoryMask(Set<Long> categoryIds) {
+        if (categoryIds == null || categoryIds.isEmpty()) {
+            return null;
+        }
+        RoaringBitmap mask = new RoaringBitmap();
+        for (Long categoryId : categoryIds) {
+            RoaringBitmap bitmap = byCategory.get(categoryId);
+            if (bitmap != null) {
+                mask.or(bitmap);
+            }
+        }
+        return mask;
+    }
+
+    private RoaringBitmap priceMask(Set<Integer> bands) {
+        if (bands == null || bands.isEmpty()) {
+            return null;
+        }
+        RoaringBitmap mask = new RoaringBitmap();
+        for (Integer band : bands) {
+            if (band != null && band >= 0 && band < byPriceBand.length) {
+                mask.or(byPriceBand[band]);
+            }
+        }
+        return mask;
+    }
+
+    private RoaringBitmap ratingAtLeast(Integer minRating) {
+        if (minRating == null || minRating <= 0) {
+            return null;
+        }
+        RoaringBitmap mask = new RoaringBitmap();
+        for (int r = Math.min(minRating, RATING_BUCKETS - 1); r < RATING_BUCKETS; r++) {
+            mask.or(byRating[r]);
+        }
+        return mask;
+    }
+
+    // Intersection of the given masks with all approved products; null masks are skipped
+    private RoaringBitmap and(RoaringBitmap... masks) {
+        RoaringBitmap result = all.clone();
+        for (RoaringBitmap mask : masks) {
+            if (mask != null) {
+                result.and(mask);
+            }
+        }
+        return result;
+    }
+
+    private int priceBand(BigDecimal price) {
+        if (price == null) {
+            return 0;
+        }
+        int band = 0;
+        while (band < priceBoundaries.size() && price.compareTo(priceBoundaries.get(band)) >= 0) {
+            band++;
+        }
+        return band;
+    }
+
+    private void removeLocked(int id) {
+        int[] placement = placements.remove(id);
+        if (placement == null) {
+            return;
+        }
+        all.remove(id);
+        if (placement[0] != NO_CATEGORY) {
+            RoaringBitmap category = byCategory.get((long) placement[0]);
+            if (category != null) {
+                category.remove(id);
+                if (category.isEmpty()) {
+                    byCategory.remove((long) placement[0]);
+                }
+            }
+        }
+        byPriceBand[placement[1]].remove(id);
+        byRating[placement[2]].remove(id);
+    }
+
+    // Bitmaps hold 32-bit values; ids beyond that range are left out of faceting
+    private static int toBitmapId(Long productId) {
+        if (productId == null || productId < 0 || productId > Integer.MAX_VALUE) {
+            System.err.println("Warning: Product id " + productId + " cannot be facet-indexed");
+            return -1;
+        }
+        return productId.intValue();
+    }
+}
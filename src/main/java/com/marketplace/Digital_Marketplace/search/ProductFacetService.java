@@ -0,0 +1,95 @@
+package com.marketplace.Digital_Marketplace.search;
+
+import com.marketplace.Digital_Marketplace.dtos.ProductDTO;
+import com.marketplace.Digital_Marketplace.events.ProductChangedEvent;
+import com.marketplace.Digital_Marketplace.repositories.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Keeps the facet bitmaps in step with the catalog and hydrates filtered pages
+ */
+@Service
+public class ProductFacetService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductFacetIndex facetIndex;
+
+    @Value("${search.rebuild-batch-size:500}")
+    private int rebuildBatchSize;
+
+    @Value("${catalog.max-page-size:100}")
+    private int maxPageSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndex() {
+        facetIndex.clear();
+        refreshAll();
+    }
+
+    /**
+     * Re-place every approved product, e.g. after ratings were recomputed in bulk.
+     * Nothing is cleared, so filters keep answering while it runs.
+     */
+    public void refreshAll() {
+        Limit limit = Limit.of(rebuildBatchSize);
+        List<ProductDTO> batch = productRepository.findApprovedFirstPage(limit);
+        while (!batch.isEmpty()) {
+            batch.forEach(this::put);
+            if (batch.size() < rebuildBatchSize) {
+                break;
+            }
+            ProductDTO last = batch.get(batch.size() - 1);
+            batch = productRepository.findApprovedAfter(last.getCreatedAt(), last.getId(), limit);
+        }
+    }
+
+    /**
+     * Any product change, including a new rating, can move it between buckets
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Long productId = event.getProductId();
+        List<ProductDTO> rows = event.getType() == ProductChangedEvent.Type.DELETED
+                ? List.of()
+                : productRepository.findSummariesByIdIn(List.of(productId));
+        if (rows.isEmpty() || !Boolean.TRUE.equals(rows.get(0).getApproved())) {
+            facetIndex.remove(productId);
+        } else {
+            put(rows.get(0));
+        }
+    }
+
+    /**
+     * Filters in memory, then loads only the requested page (newest id first) in one query
+     */
+    public FacetPage filter(FacetFilter filter, Long beforeId, int size) {
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        FacetResult result = facetIndex.filter(filter, beforeId, pageSize);
+        List<ProductDTO> items = result.getProductIds().isEmpty()
+                ? List.of()
+                : productRepository.findSummariesByIdIn(result.getProductIds()).stream()
+                        .sorted(Comparator.comparing(ProductDTO::getId).reversed())
+                        .toList();
+        Long nextBeforeId = result.isHasMore() ? result.getProductIds().get(result.getProductIds().size() - 1) : null;
+        return new FacetPage(items, nextBeforeId, result);
+    }
+
+    private void put(ProductDTO product) {
+        facetIndex.put(product.getId(), product.getCategoryId(), product.getPrice(), product.getAverageRating());
+    }
+}
@@ -0,0 +1,163 @@
+package com.marketplace.Digital_Marketplace.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over approved products, ranked with BM25.
+ * A query only touches the posting lists of its own terms, so latency
+ * follows the number of matches rather than the size of the catalog.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // A name hit counts as much as three description hits
+    private static final int NAME_WEIGHT = 3;
+    // Best first: higher score, then newer id
+    private static final Comparator<Map.Entry<Long, Double>> RANKING = Map.Entry.<Long, Double>comparingByValue()
+            .reversed()
+            .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+    private final Map<Long, Integer> documentLengths = new HashMap<>();
+    private long totalLength;
+
+    public void index(Long productId, String name, String description) {
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        for (String term : ProductTokenizer.tokenize(name)) {
+            termFrequencies.merge(term, NAME_WEIGHT, Integer::sum);
+        }
+        for (String term : ProductTokenizer.tokenize(description)) {
+            termFrequencies.merge(term, 1, Integer::sum);
+        }
+        int length = termFrequencies.values().stream().mapToInt(Integer::intValue).sum();
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+            if (termFrequencies.isEmpty()) {
+                return;
+            }
+            documents.put(productId, termFrequencies);
+            documentLengths.put(productId, length);
+            totalLength += length;
+            termFrequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, key -> new HashMap<>()).put(productId, frequency));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            documentLengths.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scores every product matching at least one query term and returns the
+     * requested window. Only the best offset + limit matches are kept, in a
+     * bounded heap, so a page costs O(n log window) rather than a full sort.
+     * Ties are broken newest-id first for stable paging.
+     */
+    public SearchHits search(String query, int offset, int limit) {
+        Set<String> terms = new LinkedHashSet<>(ProductTokenizer.tokenize(query));
+        if (terms.isEmpty()) {
+            return new SearchHits(List.of(), 0);
+        }
+
+        Map<Long, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return new SearchHits(List.of(), 0);
+            }
+            double averageLength = (double) totalLength / documentCount;
+            for (String term : terms) {
+                Map<Long, Integer> posting = postings.get(term);
+                if (posting == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5));
+                for (Map.Entry<Long, Integer> entry : posting.entrySet()) {
+                    int frequency = entry.getValue();
+                    double normalizedLength = documentLengths.get(entry.getKey()) / averageLength;
+                    double score = idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * normalizedLength));
+                    scores.merge(entry.getKey(), score, Double::sum);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int from = Math.min(Math.max(offset, 0), scores.size());
+        int window = (int) Math.min((long) from + Math.max(limit, 0), scores.size());
+        if (window == from) {
+            return new SearchHits(List.of(), scores.size());
+        }
+
+        // Worst kept match at the head, so each better one replaces it in O(log window)
+        PriorityQueue<Map.Entry<Long, Double>> best = new PriorityQueue<>(window, RANKING.reversed());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            if (best.size() < window) {
+                best.add(entry);
+            } else if (RANKING.compare(entry, best.peek()) < 0) {
+                best.poll();
+                best.add(entry);
+            }
+        }
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(best);
+        ranked.sort(RANKING);
+
+        List<Long> ids = ranked.subList(from, window).stream().map(Map.Entry::getKey).toList();
+        return new SearchHits(ids, scores.size());
+    }
+
+    private void removeLocked(Long productId) {
+        Map<String, Integer> previous = documents.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        totalLength -= documentLengths.remove(productId);
+        for (String term : previous.keySet()) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(productId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
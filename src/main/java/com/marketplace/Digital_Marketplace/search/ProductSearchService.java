@@ -0,0 +1,114 @@
+package com.marketplace.Digital_Marketplace.search;
+
+import com.marketplace.Digital_Marketplace.dtos.ProductDTO;
+import com.marketplace.Digital_Marketplace.events.ProductChangedEvent;
+import com.marketplace.Digital_Marketplace.repositories.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the product search index in step with the catalog and answers
+ * ranked, paginated queries from it
+ */
+@Service
+public class ProductSearchService {
+
+    private static final int MAX_QUERY_LENGTH = 200;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Value("${search.rebuild-batch-size:500}")
+    private int rebuildBatchSize;
+
+    @Value("${catalog.max-page-size:100}")
+    private int maxPageSize;
+
+    /**
+     * Loads every approved product into the index, walking the catalog by keyset
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndex() {
+        searchIndex.clear();
+        Limit limit = Limit.of(rebuildBatchSize);
+        List<ProductDTO> batch = productRepository.findApprovedFirstPage(limit);
+        while (!batch.isEmpty()) {
+            for (ProductDTO product : batch) {
+                searchIndex.index(product.getId(), product.getName(), product.getDescription());
+            }
+            if (batch.size() < rebuildBatchSize) {
+                break;
+            }
+            ProductDTO last = batch.get(batch.size() - 1);
+            batch = productRepository.findApprovedAfter(last.getCreatedAt(), last.getId(), limit);
+        }
+    }
+
+    /**
+     * Re-reads the product once its transaction commits; unapproved or
+     * deleted products leave the index
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() == ProductChangedEvent.Type.REVIEWED) {
+            return;
+        }
+        Long productId = event.getProductId();
+        if (event.getType() == ProductChangedEvent.Type.DELETED) {
+            searchIndex.remove(productId);
+            return;
+        }
+        List<ProductDTO> rows = productRepository.findSummariesByIdIn(List.of(productId));
+        if (rows.isEmpty() || !Boolean.TRUE.equals(rows.get(0).getApproved())) {
+            searchIndex.remove(productId);
+        } else {
+            ProductDTO product = rows.get(0);
+            searchIndex.index(productId, product.getName(), product.getDescription());
+        }
+    }
+
+    public Page<ProductDTO> search(String query, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        // Capped so the offset fits in an int; a page past the last hit is then simply empty
+        int pageNumber = Math.min(Math.max(page, 0), Integer.MAX_VALUE / pageSize);
+        PageRequest pageable = PageRequest.of(pageNumber, pageSize);
+
+        String trimmed = query == null ? "" : query.strip();
+        if (trimmed.length() > MAX_QUERY_LENGTH) {
+            trimmed = trimmed.substring(0, MAX_QUERY_LENGTH);
+        }
+        SearchHits hits = searchIndex.search(trimmed, (int) pageable.getOffset(), pageSize);
+        if (hits.getProductIds().isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, hits.getTotalHits());
+        }
+
+        // Hydrate the window in one statement, then restore ranking order
+        Map<Long, ProductDTO> byId = productRepository.findSummariesByIdIn(hits.getProductIds()).stream()
+                .collect(Collectors.toMap(ProductDTO::getId, Function.identity()));
+        List<ProductDTO> items = hits.getProductIds().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(items, pageable, hits.getTotalHits());
+    }
+}
@@ -0,0 +1,14 @@
+package com.marketplace.Digital_Marketplace.search;
+
+import lombok.*;
+import java.util.List;
+
+/**
+ * One window of ranked product ids plus the total number of matches
+ */
+@Getter
+@AllArgsConstructor
+public class SearchHits {
+    private final List<Long> productIds;
+    private final int totalHits;
+}
@@ -0,0 +1,211 @@
+package com.marketplace.Digital_Marketplace.search;
+
+import com.marketplace.Digital_Marketplace.dtos.ProductDTO;
+import com.marketplace.Digital_Marketplace.events.CategoryChangedEvent;
+import com.marketplace.Digital_Marketplace.events.ProductChangedEvent;
+import com.marketplace.Digital_Marketplace.models.Category;
+import com.marketplace.Digital_Marketplace.repositories.CategoryRepository;
+import com.marketplace.Digital_Marketplace.repositories.OrderItemRepository;
+import com.marketplace.Digital_Marketplace.repositories.ProductRepository;
+import com.marketplace.Digital_Marketplace.services.DownloadService;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Search-as-you-type over approved product names and category names.
+ * Products are weighted by paid sales, categories by approved product count.
+ */
+@Service
+public class SuggestService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Value("${suggest.top-k:10}")
+    private int topK;
+
+    // Names are also reachable from their 2nd, 3rd... word ("notion" finds "Ultimate Notion Planner")
+    @Value("${suggest.max-word-starts:4}")
+    private int maxWordStarts;
+
+    // Prefixes up to this length answer from cached top-K; longer ones rank their (small) subtree
+    @Value("${suggest.cached-prefix-length:12}")
+    private int cachedPrefixLength;
+
+    @Value("${search.rebuild-batch-size:500}")
+    private int rebuildBatchSize;
+
+    private SuggestionTrie trie;
+
+    // Current entry per product/category so renames and removals can find their old keys
+    private final Map<Suggestion, Suggestion> indexed = new ConcurrentHashMap<>();
+
+    // Keeps indexed and the trie in step; a lock rather than a monitor so virtual threads are not pinned
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    @PostConstruct
+    public void init() {
+        trie = new SuggestionTrie(topK, cachedPrefixLength);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        trie.clear();
+        indexed.clear();
+
+        Map<Long, Long> sales = new HashMap<>();
+        for (Object[] row : orderItemRepository.countSalesByProduct(DownloadService.PAID_STATUSES)) {
+            sales.put((Long) row[0], (Long) row[1]);
+        }
+        Limit limit = Limit.of(rebuildBatchSize);
+        List<ProductDTO> batch = productRepository.findApprovedFirstPage(limit);
+        while (!batch.isEmpty()) {
+            for (ProductDTO product : batch) {
+                put(new Suggestion(Suggestion.Type.PRODUCT, product.getId(), product.getName(),
+                        sales.getOrDefault(product.getId(), 0L)));
+            }
+            if (batch.size() < rebuildBatchSize) {
+                break;
+            }
+            ProductDTO last = batch.get(batch.size() - 1);
+            batch = productRepository.findApprovedAfter(last.getCreatedAt(), last.getId(), limit);
+        }
+
+        Map<Long, Long> productCounts = approvedCountsByCategory();
+        for (Category category : categoryRepository.findAll()) {
+            put(new Suggestion(Suggestion.Type.CATEGORY, category.getId(), category.getName(),
+                    productCounts.getOrDefault(category.getId(), 0L)));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() == ProductChangedEvent.Type.REVIEWED) {
+            return;
+        }
+        Long productId = event.getProductId();
+        Suggestion key = new Suggestion(Suggestion.Type.PRODUCT, productId, "", 0);
+        List<ProductDTO> rows = event.getType() == ProductChangedEvent.Type.DELETED
+                ? List.of()
+                : productRepository.findSummariesByIdIn(List.of(productId));
+        if (rows.isEmpty() || !Boolean.TRUE.equals(rows.get(0).getApproved())) {
+            drop(key);
+        } else {
+            long weight = orderItemRepository.countSales(productId, DownloadService.PAID_STATUSES);
+            put(new Suggestion(Suggestion.Type.PRODUCT, productId, rows.get(0).getName(), weight));
+        }
+        // Approving, deleting or moving a product changes its categories' approved counts
+        refreshCategoryWeights();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        Suggestion key = new Suggestion(Suggestion.Type.CATEGORY, event.getCategoryId(), "", 0);
+        Optional<Category> category = event.getType() == CategoryChangedEvent.Type.DELETED
+                ? Optional.empty()
+                : categoryRepository.findById(event.getCategoryId());
+        if (category.isEmpty()) {
+            drop(key);
+            return;
+        }
+        long weight = approvedCountsByCategory().getOrDefault(category.get().getId(), 0L);
+        put(new Suggestion(Suggestion.Type.CATEGORY, category.get().getId(), category.get().getName(), weight));
+    }
+
+    public List<Suggestion> suggest(String query, int limit) {
+        String prefix = ProductTokenizer.normalize(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        return trie.lookup(prefix, Math.max(1, Math.min(limit, topK)));
+    }
+
+    private Map<Long, Long> approvedCountsByCategory() {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : productRepository.countApprovedByCategory()) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    // One grouped count over the few categories; only entries whose weight moved are re-ranked
+    private void refreshCategoryWeights() {
+        Map<Long, Long> counts = approvedCountsByCategory();
+        writeLock.lock();
+        try {
+            for (Suggestion current : List.copyOf(indexed.values())) {
+                if (current.getType() != Suggestion.Type.CATEGORY) {
+                    continue;
+                }
+                long weight = counts.getOrDefault(current.getId(), 0L);
+                if (weight != current.getWeight()) {
+                    put(new Suggestion(Suggestion.Type.CATEGORY, current.getId(), current.getText(), weight));
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void put(Suggestion suggestion) {
+        writeLock.lock();
+        try {
+            Suggestion previous = indexed.put(suggestion, suggestion);
+            trie.replace(previous == null ? List.of() : keys(previous.getText()), previous,
+                         keys(suggestion.getText()), suggestion);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void drop(Suggestion key) {
+        writeLock.lock();
+        try {
+            Suggestion previous = indexed.remove(key);
+            if (previous != null) {
+                trie.replace(keys(previous.getText()), previous, List.of(), null);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Set<String> keys(String text) {
+        Set<String> keys = new LinkedHashSet<>();
+        String normalized = ProductTokenizer.normalize(text);
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+        keys.add(normalized);
+        int start = 0;
+        for (int i = 1; i < maxWordStarts; i++) {
+            int space = normalized.indexOf(' ', start);
+            if (space < 0) {
+                break;
+            }
+            start = space + 1;
+            keys.add(normalized.substring(start));
+        }
+        return keys;
+    }
+}
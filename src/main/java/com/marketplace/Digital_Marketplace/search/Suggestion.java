@@ -0,0 +1,20 @@
+package com.marketplace.Digital_Marketplace.search;
+
+import lombok.*;
+
+/**
+ * One typeahead entry. Identity is (type, id); weight orders suggestions.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode(of = {"type", "id"})
+@ToString
+public class Suggestion {
+
+    public enum Type { PRODUCT, CATEGORY }
+
+    private final Type type;
+    private final Long id;
+    private final String text;
+    private final long weight;
+}
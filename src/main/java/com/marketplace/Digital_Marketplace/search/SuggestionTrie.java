@@ -0,0 +1,376 @@
+package com.marketplace.Digital_Marketplace.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Path-compressed prefix trie (radix tree): each edge carries a run of
+ * characters, so a key adds at most one branch node and one leaf instead of a
+ * node per character. Nodes starting within the first cachedPrefixLength
+ * characters cache the top-K suggestions of their subtree, so a short prefix
+ * is one walk plus an array copy; a longer prefix lands in a subtree shared by
+ * few keys, which is ranked on demand.
+ *
+ * Readers take no lock: branches, entries and top-K arrays are immutable and
+ * published through volatile fields. Writers are serialized and rebuild the
+ * cached top-K only along the paths they touch.
+ */
+public class SuggestionTrie {
+
+    private static final Comparator<Suggestion> RANKING = Comparator
+            .comparingLong(Suggestion::getWeight).reversed()
+            .thenComparing(Suggestion::getText)
+            .thenComparing(Suggestion::getId);
+
+    private static final Suggestion[] NO_SUGGESTIONS = new Suggestion[0];
+
+    private final int topK;
+    private final int cachedPrefixLength;
+    private final Node root = new Node();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public SuggestionTrie(int topK, int cachedPrefixLength) {
+        this.topK = topK;
+        this.cachedPrefixLength = cachedPrefixLength;
+        root.top = NO_SUGGESTIONS;
+    }
+
+    private static final class Branches {
+        static final Branches EMPTY = new Branches(new char[0], new String[0], new Node[0]);
+
+        // First character of each edge, sorted for binary search
+        final char[] labels;
+        final String[] edges;
+        final Node[] nodes;
+
+        Branches(char[] labels, String[] edges, Node[] nodes) {
+            this.labels = labels;
+            this.edges = edges;
+            this.nodes = nodes;
+        }
+    }
+
+    private static final class Node {
+        volatile Branches branches = Branches.EMPTY;
+        // Top-K of the subtree; null for nodes starting past the cached prefix length
+        volatile Suggestion[] top;
+        // Suggestions whose key ends here
+        volatile Suggestion[] entries = NO_SUGGESTIONS;
+    }
+
+    /**
+     * Best suggestions whose key starts with the given (already normalized) prefix
+     */
+    public List<Suggestion> lookup(String prefix, int limit) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            Branches branches = node.branches;
+            int index = Arrays.binarySearch(branches.labels, prefix.charAt(i));
+            if (index < 0) {
+                return List.of();
+            }
+            String edge = branches.edges[index];
+            int common = commonPrefix(edge, prefix, i);
+            if (common < edge.length() && i + common < prefix.length()) {
+                // The prefix leaves the edge part-way
+                return List.of();
+            }
+            node = branches.nodes[index];
+            i += common;
+        }
+        Suggestion[] top = node.top;
+        if (top == null) {
+            top = rank(node);
+        }
+        return List.of(top).subList(0, Math.min(limit, top.length));
+    }
+
+    public void add(String key, Suggestion suggestion) {
+        writeLock.lock();
+        try {
+            addLocked(key, suggestion);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(String key, Suggestion suggestion) {
+        writeLock.lock();
+        try {
+            removeLocked(key, suggestion);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Swaps a suggestion's keys atomically with respect to other writers
+     */
+    public void replace(Collection<String> oldKeys, Suggestion oldSuggestion,
+                        Collection<String> newKeys, Suggestion newSuggestion) {
+        writeLock.lock();
+        try {
+            if (oldSuggestion != null) {
+                for (String key : oldKeys) {
+                    removeLocked(key, oldSuggestion);
+                }
+            }
+            if (newSuggestion != null) {
+                for (String key : newKeys) {
+                    addLocked(key, newSuggestion);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void clear() {
+        writeLock.lock();
+        try {
+            root.branches = Branches.EMPTY;
+            root.top = NO_SUGGESTIONS;
+            root.entries = NO_SUGGESTIONS;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void addLocked(String key, Suggestion suggestion) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            Branches branches = node.branches;
+            int index = Arrays.binarySearch(branches.labels, key.charAt(i));
+            Node next;
+            int advance;
+            if (index < 0) {
+                // New leaf holding the rest of the key
+                next = new Node();
+                next.top = isCached(i + 1) ? NO_SUGGESTIONS : null;
+                insertChild(node, key.substring(i), next);
+                advance = key.length() - i;
+            } else {
+                String edge = branches.edges[index];
+                next = branches.nodes[index];
+                advance = commonPrefix(edge, key, i);
+                if (advance < edge.length()) {
+                    // Split the edge where the key leaves it; the new node is complete before it is published
+                    Node middle = new Node();
+                    middle.branches = new Branches(new char[] {edge.charAt(advance)},
+                            new String[] {edge.substring(advance)}, new Node[] {next});
+                    if (isCached(i + 1)) {
+                        middle.top = recompute(middle);
+                    }
+                    replaceChild(node, index, edge.substring(0, advance), middle);
+                    next = middle;
+                }
+            }
+            node = next;
+            path.add(node);
+            i += advance;
+        }
+
+        node.entries = with(node.entries, suggestion);
+        for (Node onPath : path) {
+            if (onPath.top != null) {
+                offer(onPath, suggestion);
+            }
+        }
+    }
+
+    private void removeLocked(String key, Suggestion suggestion) {
+        List<Node> path = new ArrayList<>();
+        StringBuilder labels = new StringBuilder();
+        Node node = root;
+        path.add(node);
+        labels.append('\0');
+        int i = 0;
+        while (i < key.length()) {
+            Branches branches = node.branches;
+            int index = Arrays.binarySearch(branches.labels, key.charAt(i));
+            if (index < 0 || !key.startsWith(branches.edges[index], i)) {
+                return;
+            }
+            node = branches.nodes[index];
+            path.add(node);
+            labels.append(key.charAt(i));
+            i += branches.edges[index].length();
+        }
+        if (indexOf(node.entries, suggestion) < 0) {
+            return;
+        }
+        node.entries = without(node.entries, suggestion);
+
+        // Walk back up: drop empty leaves, fold pass-through nodes into their only child,
+        // and refill any top-K that held the entry
+        for (int depth = path.size() - 1; depth >= 0; depth--) {
+            Node current = path.get(depth);
+            if (depth > 0 && current.entries.length == 0) {
+                Node parent = path.get(depth - 1);
+                char label = labels.charAt(depth);
+                Branches children = current.branches;
+                if (children.labels.length == 0) {
+                    removeChild(parent, label);
+                    continue;
+                }
+                if (children.labels.length == 1) {
+                    Node only = children.nodes[0];
+                    if (only.top == null && current.top != null) {
+                        // It now starts where the folded node did
+                        only.top = recompute(only);
+                    }
+                    int index = Arrays.binarySearch(parent.branches.labels, label);
+                    replaceChild(parent, index, parent.branches.edges[index] + children.edges[0], only);
+                    continue;
+                }
+            }
+            if (current.top != null && indexOf(current.top, suggestion) >= 0) {
+                current.top = recompute(current);
+            }
+        }
+    }
+
+    private boolean isCached(int startDepth) {
+        return startDepth <= cachedPrefixLength;
+    }
+
+    private void offer(Node node, Suggestion suggestion) {
+        Suggestion[] top = node.top;
+        int existing = indexOf(top, suggestion);
+        if (existing >= 0 && top[existing].getWeight() == suggestion.getWeight()) {
+            return;
+        }
+        List<Suggestion> merged = new ArrayList<>(top.length + 1);
+        for (Suggestion current : top) {
+            if (!current.equals(suggestion)) {
+                merged.add(current);
+            }
+        }
+        merged.add(suggestion);
+        node.top = best(merged);
+    }
+
+    // A subtree's top-K is always within its own entries plus its children's top-K
+    private Suggestion[] recompute(Node node) {
+        Set<Suggestion> candidates = new HashSet<>();
+        Collections.addAll(candidates, node.entries);
+        for (Node child : node.branches.nodes) {
+            Suggestion[] top = child.top;
+            if (top != null) {
+                Collections.addAll(candidates, top);
+            } else {
+                collect(child, candidates);
+            }
+        }
+        return best(candidates);
+    }
+
+    // Uncached subtrees hang below a long shared prefix, so they hold few keys
+    private Suggestion[] rank(Node node) {
+        Set<Suggestion> candidates = new HashSet<>();
+        collect(node, candidates);
+        return best(candidates);
+    }
+
+    private static void collect(Node node, Set<Suggestion> into) {
+        Collections.addAll(into, node.entries);
+        for (Node child : node.branches.nodes) {
+            collect(child, into);
+        }
+    }
+
+    private Suggestion[] best(Collection<Suggestion> candidates) {
+        List<Suggestion> ranked = new ArrayList<>(candidates);
+        ranked.sort(RANKING);
+        return ranked.subList(0, Math.min(topK, ranked.size())).toArray(NO_SUGGESTIONS);
+    }
+
+    private static int commonPrefix(String edge, String key, int from) {
+        int max = Math.min(edge.length(), key.length() - from);
+        int i = 0;
+        while (i < max && edge.charAt(i) == key.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static void insertChild(Node parent, String edge, Node child) {
+        Branches branches = parent.branches;
+        char label = edge.charAt(0);
+        int insertAt = -Arrays.binarySearch(branches.labels, label) - 1;
+        int size = branches.labels.length;
+        char[] labels = new char[size + 1];
+        String[] edges = new String[size + 1];
+        Node[] nodes = new Node[size + 1];
+        System.arraycopy(branches.labels, 0, labels, 0, insertAt);
+        System.arraycopy(branches.edges, 0, edges, 0, insertAt);
+        System.arraycopy(branches.nodes, 0, nodes, 0, insertAt);
+        labels[insertAt] = label;
+        edges[insertAt] = edge;
+        nodes[insertAt] = child;
+        System.arraycopy(branches.labels, insertAt, labels, insertAt + 1, size - insertAt);
+        System.arraycopy(branches.edges, insertAt, edges, insertAt + 1, size - insertAt);
+        System.arraycopy(branches.nodes, insertAt, nodes, insertAt + 1, size - insertAt);
+        parent.branches = new Branches(labels, edges, nodes);
+    }
+
+    // The new edge starts with the same character, so the label order is unchanged
+    private static void replaceChild(Node parent, int index, String edge, Node child) {
+        Branches branches = parent.branches;
+        String[] edges = branches.edges.clone();
+        Node[] nodes = branches.nodes.clone();
+        edges[index] = edge;
+        nodes[index] = child;
+        parent.branches = new Branches(branches.labels, edges, nodes);
+    }
+
+    private static void removeChild(Node parent, char label) {
+        Branches branches = parent.branches;
+        int index = Arrays.binarySearch(branches.labels, label);
+        if (index < 0) {
+            return;
+        }
+        int size = branches.labels.length;
+        char[] labels = new char[size - 1];
+        String[] edges = new String[size - 1];
+        Node[] nodes = new Node[size - 1];
+        System.arraycopy(branches.labels, 0, labels, 0, index);
+        System.arraycopy(branches.edges, 0, edges, 0, index);
+        System.arraycopy(branches.nodes, 0, nodes, 0, index);
+        System.arraycopy(branches.labels, index + 1, labels, index, size - index - 1);
+        System.arraycopy(branches.edges, index + 1, edges, index, size - index - 1);
+        System.arraycopy(branches.nodes, index + 1, nodes, index, size - index - 1);
+        parent.branches = new Branches(labels, edges, nodes);
+    }
+
+    private static Suggestion[] with(Suggestion[] entries, Suggestion suggestion) {
+        Suggestion[] rest = without(entries, suggestion);
+        Suggestion[] result = Arrays.copyOf(rest, rest.length + 1);
+        result[rest.length] = suggestion;
+        return result;
+    }
+
+    private static Suggestion[] without(Suggestion[] entries, Suggestion suggestion) {
+        int index = indexOf(entries, suggestion);
+        if (index < 0) {
+            return entries;
+        }
+        Suggestion[] result = new Suggestion[entries.length - 1];
+        System.arraycopy(entries, 0, result, 0, index);
+        System.arraycopy(entries, index + 1, result, index, entries.length - index - 1);
+        return result;
+    }
+
+    private static int indexOf(Suggestion[] suggestions, Suggestion suggestion) {
+        for (int i = 0; i < suggestions.length; i++) {
+            if (suggestions[i].equals(suggestion)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
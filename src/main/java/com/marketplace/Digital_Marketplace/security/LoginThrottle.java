@@ -0,0 +1,51 @@
+package com.marketplace.Digital_Marketplace.security;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Per-account token buckets for login attempts, checked before any password
+ * hashing is done. Per-IP limits on /login are a rate-limit route (RateLimiter).
+ */
+@Component
+public class LoginThrottle {
+
+    @Value("${security.login-throttle.account.capacity:5}")
+    private long accountCapacity;
+
+    @Value("${security.login-throttle.account.per-minute:3}")
+    private double accountPerMinute;
+
+    @Value("${rate-limit.stripes:64}")
+    private int stripes;
+
+    @Value("${security.login-throttle.max-keys:100000}")
+    private long maxKeys;
+
+    private TokenBucketMap accountBuckets;
+
+    @PostConstruct
+    public void init() {
+        accountBuckets = new TokenBucketMap(accountCapacity, accountPerMinute, stripes, maxKeys);
+    }
+
+    /**
+     * Take one attempt from the account's bucket.
+     * @return 0 if the attempt may proceed, otherwise nanoseconds to wait
+     */
+    public long tryAcquire(String login) {
+        if (login == null || login.isBlank()) {
+            return 0;
+        }
+        return accountBuckets.tryAcquire(login.strip().toLowerCase(Locale.ROOT));
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        accountBuckets.evictIdle();
+    }
+}
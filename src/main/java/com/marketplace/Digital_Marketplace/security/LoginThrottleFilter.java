@@ -0,0 +1,47 @@
+package com.marketplace.Digital_Marketplace.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Refuses login form posts over the LoginThrottle limits before they reach the
+ * authentication filter, so a credential-stuffing burst costs no BCrypt work.
+ * Added to the security chain only (not a @Component) so it is not also
+ * registered as a servlet filter.
+ */
+public class LoginThrottleFilter extends OncePerRequestFilter {
+
+    private final LoginThrottle loginThrottle;
+    private final String loginUrl;
+    private final String usernameParameter;
+
+    public LoginThrottleFilter(LoginThrottle loginThrottle, String loginUrl, String usernameParameter) {
+        this.loginThrottle = loginThrottle;
+        this.loginUrl = loginUrl;
+        this.usernameParameter = usernameParameter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || !loginUrl.equals(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long wait = loginThrottle.tryAcquire(request.getParameter(usernameParameter));
+        if (wait > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(TokenBucket.toRetryAfterSeconds(wait)));
+            response.sendRedirect(request.getContextPath() + loginUrl + "?error=throttled");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
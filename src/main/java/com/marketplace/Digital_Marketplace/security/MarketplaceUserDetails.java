@@ -0,0 +1,59 @@
+package com.marketplace.Digital_Marketplace.security;
+
+import lombok.*;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Authenticated principal. Carries the user id so controllers can act for the
+ * current user without looking them up again.
+ */
+@Getter
+@EqualsAndHashCode(of = "username")
+@ToString(of = {"id", "username"})
+public class MarketplaceUserDetails implements UserDetails, CredentialsContainer {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+    private final String username;
+    private final String email;
+    private final String fullName;
+    private final boolean enabled;
+    private final List<GrantedAuthority> authorities;
+    private String password;
+
+    public MarketplaceUserDetails(UserSnapshot snapshot) {
+        this.id = snapshot.getId();
+        this.username = snapshot.getUsername();
+        this.email = snapshot.getEmail();
+        this.fullName = snapshot.getFullName();
+        this.enabled = snapshot.isEnabled();
+        this.password = snapshot.getPasswordHash();
+        this.authorities = snapshot.getRoles().stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role))
+                .toList();
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    /**
+     * Replace the hash after a transparent re-encode at login
+     */
+    void updatePassword(String encodedPassword) {
+        this.password = encodedPassword;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+}
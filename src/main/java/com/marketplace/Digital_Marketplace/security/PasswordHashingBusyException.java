@@ -0,0 +1,13 @@
+package com.marketplace.Digital_Marketplace.security;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * The password-hashing executor is saturated; the attempt was dropped without being checked
+ */
+public class PasswordHashingBusyException extends AuthenticationServiceException {
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
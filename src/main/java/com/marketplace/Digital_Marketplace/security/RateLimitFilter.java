@@ -0,0 +1,71 @@
+package com.marketplace.Digital_Marketplace.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Answers 429 with Retry-After for requests over their route's limits. Sits right
+ * after the security context is loaded, so the user is known, and reads only the
+ * method, path and remote address: a refused upload is never multipart-parsed or
+ * read. Added to the security chain only (not a @Component) so it is not also
+ * registered as a servlet filter.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RateLimiter.Route route = rateLimiter.match(request);
+        if (route != null) {
+            // The client's address, not the load balancer's: Tomcat's RemoteIpValve applies
+            // X-Forwarded-For from trusted proxies (server.forward-headers-strategy=native)
+            long wait = rateLimiter.tryAcquire(route, currentUserId(), request.getRemoteAddr());
+            if (wait > 0) {
+                reject(request, response, TokenBucket.toRetryAfterSeconds(wait));
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof MarketplaceUserDetails principal) {
+            return principal.getId();
+        }
+        return null;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long retryAfterSeconds)
+            throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        String message = "Too many requests, please retry in " + retryAfterSeconds + " seconds";
+        if (request.getServletPath().startsWith("/api/")) {
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"status\":\"error\",\"message\":\"" + message
+                    + "\",\"retryAfter\":" + retryAfterSeconds + "}");
+        } else {
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.getWriter().write(message);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.marketplace.Digital_Marketplace.security;
+
+import com.marketplace.Digital_Marketplace.config.RateLimitProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-route token buckets keyed by user id and by client IP, built from RateLimitProperties
+ */
+@Component
+public class RateLimiter {
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    private List<Route> routes = List.of();
+
+    @PostConstruct
+    public void init() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        List<Route> built = new ArrayList<>();
+        for (Map.Entry<String, RateLimitProperties.Route> entry : properties.getRoutes().entrySet()) {
+            RateLimitProperties.Route config = entry.getValue();
+            if (config.getPaths().isEmpty()) {
+                System.err.println("Rate limit route " + entry.getKey() + " has no paths, ignoring it");
+                continue;
+            }
+            HttpMethod method = StringUtils.hasText(config.getMethod())
+                    ? HttpMethod.valueOf(config.getMethod().trim().toUpperCase())
+                    : null;
+            List<RequestMatcher> matchers = config.getPaths().stream()
+                    .map(path -> (RequestMatcher) PathPatternRequestMatcher.withDefaults().matcher(method, path))
+                    .toList();
+            built.add(new Route(entry.getKey(), new OrRequestMatcher(matchers),
+                    buckets(config.getPerUser()), buckets(config.getPerIp())));
+        }
+        routes = List.copyOf(built);
+    }
+
+    /**
+     * The first configured route matching the request, or null if it is not limited
+     */
+    Route match(HttpServletRequest request) {
+        for (Route route : routes) {
+            if (route.matcher().matches(request)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Take a token from the user's bucket (when signed in) and from the IP's bucket.
+     * Either both are taken or neither: the user's token is refunded if the IP refuses.
+     * @return 0 if the request may proceed, otherwise nanoseconds to wait
+     */
+    long tryAcquire(Route route, Long userId, String ip) {
+        boolean userCharged = userId != null && route.perUser() != null;
+        if (userCharged) {
+            long wait = route.perUser().tryAcquire(userId.toString());
+            if (wait > 0) {
+                return wait;
+            }
+        }
+        if (route.perIp() != null) {
+            long wait = route.perIp().tryAcquire(ip);
+            if (wait > 0 && userCharged) {
+                // A request refused by the IP limit must not use up the user's allowance
+                route.perUser().refund(userId.toString());
+            }
+            return wait;
+        }
+        return 0;
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        for (Route route : routes) {
+            if (route.perUser() != null) {
+                route.perUser().evictIdle();
+            }
+            if (route.perIp() != null) {
+                route.perIp().evictIdle();
+            }
+        }
+    }
+
+    private TokenBucketMap buckets(RateLimitProperties.Limit limit) {
+        if (limit == null || limit.getCapacity() < 1 || limit.getPerMinute() <= 0) {
+            return null;
+        }
+        return new TokenBucketMap(limit.getCapacity(), limit.getPerMinute(),
+                properties.getStripes(), properties.getMaxKeys());
+    }
+
+    record Route(String name, RequestMatcher matcher, TokenBucketMap perUser, TokenBucketMap perIp) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.marketplace.Digital_Marketplace.security;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationSuccessHandler;
+
+import java.io.IOException;
+
+/**
+ * After form login, copies the principal's details into the session attributes
+ * the templates read (userId, username, email, fullName), without a user query
+ */
+public class SessionAttributesSuccessHandler extends SimpleUrlAuthenticationSuccessHandler {
+
+    public SessionAttributesSuccessHandler(String defaultTargetUrl) {
+        super(defaultTargetUrl);
+        setAlwaysUseDefaultTargetUrl(true);
+    }
+
+    @Override
+    public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response,
+                                        Authentication authentication) throws IOException, ServletException {
+        if (authentication.getPrincipal() instanceof MarketplaceUserDetails principal) {
+            HttpSession session = request.getSession();
+            session.setAttribute("userId", principal.getId());
+            session.setAttribute("username", principal.getUsername());
+            session.setAttribute("email", principal.getEmail());
+            session.setAttribute("fullName", principal.getFullName());
+        }
+        super.onAuthenticationSuccess(request, response, authentication);
+    }
+}
@@ -0,0 +1,72 @@
+package com.marketplace.Digital_Marketplace.security;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket. Kept as a single "theoretical arrival time" (GCRA form):
+ * each token pushes it forward by one refill interval, and a request is refused
+ * when that would put it more than capacity intervals ahead of now.
+ * A bucket that has not been used for capacity intervals is full again.
+ */
+public final class TokenBucket {
+
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @param capacity        tokens available in a burst
+     * @param tokensPerMinute sustained refill rate
+     */
+    public TokenBucket(long capacity, double tokensPerMinute) {
+        if (capacity < 1 || tokensPerMinute <= 0) {
+            throw new IllegalArgumentException("capacity and rate must be positive");
+        }
+        this.nanosPerToken = Math.max(1L, (long) (TimeUnit.MINUTES.toNanos(1) / tokensPerMinute));
+        this.burstNanos = Math.multiplyExact(nanosPerToken, capacity);
+    }
+
+    /**
+     * Take one token.
+     * @return 0 if a token was taken, otherwise nanoseconds until one is available
+     */
+    public long tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    long tryAcquire(long now) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + nanosPerToken;
+            long excess = next - now - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Give back a token taken by tryAcquire, e.g. when a second limit refused the request
+     */
+    public void refund() {
+        theoreticalArrival.addAndGet(-nanosPerToken);
+    }
+
+    /**
+     * True once the bucket has refilled completely, i.e. it can be dropped and recreated without effect
+     */
+    public boolean isIdle(long now) {
+        return theoreticalArrival.get() <= now;
+    }
+
+    /**
+     * Seconds to wait, rounded up, for a Retry-After header
+     */
+    public static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1L, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+}
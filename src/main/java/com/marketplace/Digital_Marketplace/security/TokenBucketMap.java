@@ -0,0 +1,92 @@
+package com.marketplace.Digital_Marketplace.security;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token buckets by key (user id, IP, account), spread over independently bounded
+ * stripes. Taking a token is a CAS on the key's bucket; only the first request
+ * for a key touches a map bin lock. A full stripe does not grow: new keys there
+ * share the stripe's overflow bucket until evictIdle() drops buckets that have
+ * refilled, so memory stays bounded under a flood of distinct keys.
+ */
+public class TokenBucketMap {
+
+    private final long capacity;
+    private final double perMinute;
+    private final int maxKeysPerStripe;
+    private final ConcurrentHashMap<String, TokenBucket>[] stripes;
+    private final TokenBucket[] overflow;
+
+    @SuppressWarnings("unchecked")
+    public TokenBucketMap(long capacity, double perMinute, int stripeCount, long maxKeys) {
+        int count = Integer.highestOneBit(Math.max(1, stripeCount));
+        this.capacity = capacity;
+        this.perMinute = perMinute;
+        this.maxKeysPerStripe = (int) Math.min(Integer.MAX_VALUE, Math.max(1, maxKeys / count));
+        this.stripes = new ConcurrentHashMap[count];
+        this.overflow = new TokenBucket[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+            overflow[i] = new TokenBucket(capacity, perMinute);
+        }
+    }
+
+    /**
+     * @return 0 if a token was taken, otherwise nanoseconds until one is available
+     */
+    public long tryAcquire(String key) {
+        int index = stripeIndex(key);
+        ConcurrentHashMap<String, TokenBucket> stripe = stripes[index];
+        TokenBucket bucket = stripe.get(key);
+        if (bucket == null) {
+            if (stripe.size() >= maxKeysPerStripe) {
+                return overflow[index].tryAcquire();
+            }
+            bucket = stripe.computeIfAbsent(key, k -> new TokenBucket(capacity, perMinute));
+        }
+        return bucket.tryAcquire();
+    }
+
+    /**
+     * Give back a token taken for the key by tryAcquire
+     */
+    public void refund(String key) {
+        int index = stripeIndex(key);
+        TokenBucket bucket = stripes[index].get(key);
+        // Keys that found their stripe full were charged to its overflow bucket
+        (bucket != null ? bucket : overflow[index]).refund();
+    }
+
+    /**
+     * Drop buckets that have refilled completely
+     * @return number of buckets removed
+     */
+    public int evictIdle() {
+        long now = System.nanoTime();
+        int removed = 0;
+        for (ConcurrentHashMap<String, TokenBucket> stripe : stripes) {
+            Iterator<TokenBucket> iterator = stripe.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().isIdle(now)) {
+                    iterator.remove();
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, TokenBucket> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private int stripeIndex(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+}
@@ -0,0 +1,69 @@
+package com.marketplace.Digital_Marketplace.security;
+
+import com.marketplace.Digital_Marketplace.services.UploadAdmission;
+import com.marketplace.Digital_Marketplace.services.UploadCapacityException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reserves the declared size of a product upload against UploadAdmission before
+ * the container parses the multipart body, and holds it until the request
+ * completes, so parsing and storing are both covered. Over budget the request
+ * gets 429 with Retry-After and its body is never read. Without a Content-Length
+ * the multipart max-request-size is reserved. Added to the security chain only
+ * (not a @Component) so it is not also registered as a servlet filter.
+ */
+public class UploadAdmissionFilter extends OncePerRequestFilter {
+
+    private final UploadAdmission uploadAdmission;
+    private final String uploadUrl;
+    private final long maxRequestBytes;
+
+    public UploadAdmissionFilter(UploadAdmission uploadAdmission, String uploadUrl, long maxRequestBytes) {
+        this.uploadAdmission = uploadAdmission;
+        this.uploadUrl = uploadUrl;
+        this.maxRequestBytes = maxRequestBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || !uploadUrl.equals(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Long userId = RateLimitFilter.currentUserId();
+        if (userId == null) {
+            // Anonymous posts are refused by authorization without reading the body
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long declared = request.getContentLengthLong();
+        UploadAdmission.Reservation reservation;
+        try {
+            reservation = uploadAdmission.reserve(userId, declared >= 0 ? declared : maxRequestBytes);
+        } catch (UploadCapacityException e) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.getWriter().write(e.getMessage());
+            return;
+        }
+        try (reservation) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
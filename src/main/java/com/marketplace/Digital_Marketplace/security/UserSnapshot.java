@@ -0,0 +1,39 @@
+package com.marketplace.Digital_Marketplace.security;
+
+import com.marketplace.Digital_Marketplace.models.Role;
+import com.marketplace.Digital_Marketplace.models.User;
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Immutable copy of the fields authentication needs, safe to share from a
+ * cache. Every login builds a fresh MarketplaceUserDetails from it, because
+ * Spring Security erases credentials on the principal after authenticating.
+ */
+@Getter
+@AllArgsConstructor
+public class UserSnapshot implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+    private final String username;
+    private final String email;
+    private final String fullName;
+    private final String passwordHash;
+    private final boolean enabled;
+    private final List<String> roles;
+
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(
+                user.getId(),
+                user.getUsername(),
+                user.getEmail(),
+                user.getFullName(),
+                user.getPassword(),
+                !Boolean.FALSE.equals(user.getEnabled()),
+                user.getRoles().stream().map(Role::getName).toList());
+    }
+}
@@ -0,0 +1,73 @@
+package com.marketplace.Digital_Marketplace.security;
+
+import com.marketplace.Digital_Marketplace.config.CacheConfig;
+import com.marketplace.Digital_Marketplace.models.User;
+import com.marketplace.Digital_Marketplace.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Bounded cache of UserSnapshot by login (username or email, case-insensitive).
+ * A user is cached under whichever login was used; evict(User) clears both.
+ * Misses are not cached, so a new registration is visible immediately.
+ */
+@Component
+public class UserSnapshotCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Transactional(readOnly = true)
+    public Optional<UserSnapshot> findByLogin(String login) {
+        if (login == null || login.isBlank()) {
+            return Optional.empty();
+        }
+        String key = key(login);
+        Cache cache = cache();
+        UserSnapshot cached = cache.get(key, UserSnapshot.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<UserSnapshot> loaded = userRepository.findWithRolesByUsernameOrEmail(login, login)
+                .map(UserSnapshot::of);
+        loaded.ifPresent(snapshot -> cache.put(key, snapshot));
+        return loaded;
+    }
+
+    public void evict(User user) {
+        if (user != null) {
+            evict(user.getUsername(), user.getEmail());
+        }
+    }
+
+    public void evict(UserSnapshot snapshot) {
+        evict(snapshot.getUsername(), snapshot.getEmail());
+    }
+
+    public void evict(String username, String email) {
+        Cache cache = cache();
+        if (username != null) {
+            cache.evict(key(username));
+        }
+        if (email != null) {
+            cache.evict(key(email));
+        }
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(CacheConfig.USERS);
+    }
+
+    private static String key(String login) {
+        return login.strip().toLowerCase(Locale.ROOT);
+    }
+}
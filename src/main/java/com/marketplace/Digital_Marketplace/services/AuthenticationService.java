@@ -5,7 +5,7 @@ import com.marketplace.Digital_Marketplace.models.Role;
 import com.marketplace.Digital_Marketplace.repositories.UserRepository;
 import com.marketplace.Digital_Marketplace.repositories.RoleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -21,7 +21,8 @@ public class AuthenticationService {
     @Autowired
     private RoleRepository roleRepository;
     
-    private BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Autowired
+    private PasswordEncoder passwordEncoder;
     
     /**
      * Register a new user
@@ -0,0 +1,244 @@
+package com.marketplace.Digital_Marketplace.services;
+
+import com.marketplace.Digital_Marketplace.models.StoredBlob;
+import com.marketplace.Digital_Marketplace.repositories.StoredBlobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Content-addressed store: each distinct file is kept once under its SHA-256 and
+ * reference-counted by the URLs handed out for it (ProductFile.fileUrl).
+ *
+ * Reference counts are guarded by the blob's row lock alone, so they can join callers'
+ * transactions. The per-hash stripe locks only order creating and deleting the file on
+ * disk, and are never taken while this thread's transaction holds a blob row lock.
+ */
+@Service
+public class BlobStorageService {
+
+    public static final String URL_PREFIX = "/blobs/";
+
+    private static final int LOCK_STRIPES = 64;
+
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+
+    @Autowired
+    private DirectBufferPool bufferPool;
+
+    @Value("${storage.local.path:uploads}")
+    private String localStoragePath;
+
+    // Serializes moving a blob's file into place with deleting it, without holding a monitor during I/O
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public BlobStorageService() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Stream an upload to disk while hashing it, then store it by content.
+     * Must not run inside a transaction, as it takes a stripe lock before touching the row.
+     */
+    public String store(InputStream in) throws IOException {
+        Path temp = newTempFile();
+        MessageDigest digest = sha256();
+        try (DigestInputStream digestIn = new DigestInputStream(in, digest)) {
+            Files.copy(digestIn, temp, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return storeHashed(temp, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * Store a local file by content. The file is hashed in one sequential pass and then
+     * moved into place, or deleted if an identical blob already exists.
+     */
+    public String store(Path source) throws IOException {
+        return storeHashed(source, hash(source));
+    }
+
+    /**
+     * URL of the stored blob with this hash, if any. Takes no reference; see retain.
+     */
+    public Optional<String> find(String sha256) {
+        String hash = sha256.toLowerCase();
+        if (!isValidHash(hash) || !storedBlobRepository.existsById(hash)) {
+            return Optional.empty();
+        }
+        return Optional.of(urlFor(hash));
+    }
+
+    /**
+     * Drop one reference; the blob is deleted once nothing refers to it.
+     * Joins the caller's transaction; the file is removed only after it commits.
+     */
+    public void release(String fileUrl) throws IOException {
+        String hash = hashFromUrl(fileUrl);
+        if (hash == null) {
+            return;
+        }
+        storedBlobRepository.decrementRefCount(hash);
+        if (storedBlobRepository.deleteIfUnreferenced(hash) == 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deleteFileIfUnstored(hash);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    deleteFileIfUnstored(hash);
+                } catch (IOException e) {
+                    System.err.println("Warning: Failed to delete blob " + hash + ": " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Add a reference to the blob behind a URL; false if no such blob exists.
+     * Joins the caller's transaction, so the reference commits with the row that holds the URL.
+     */
+    public boolean retain(String fileUrl) {
+        String hash = hashFromUrl(fileUrl);
+        if (hash == null) {
+            return false;
+        }
+        return storedBlobRepository.incrementRefCount(hash) > 0;
+    }
+
+    public boolean isBlobUrl(String fileUrl) {
+        return hashFromUrl(fileUrl) != null;
+    }
+
+    public Path blobPath(String hash) {
+        return Paths.get(localStoragePath, "blobs", hash.substring(0, 2), hash);
+    }
+
+    private String storeHashed(Path source, String hash) throws IOException {
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            if (storedBlobRepository.incrementRefCount(hash) > 0) {
+                // Identical content is already stored
+                Files.deleteIfExists(source);
+                return urlFor(hash);
+            }
+
+            Path target = blobPath(hash);
+            Files.createDirectories(target.getParent());
+            long size = Files.size(source);
+            try {
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            StoredBlob blob = new StoredBlob();
+            blob.setHash(hash);
+            blob.setStoragePath(URL_PREFIX + hash.substring(0, 2) + "/" + hash);
+            blob.setSize(size);
+            blob.setRefCount(1);
+            try {
+                storedBlobRepository.save(blob);
+            } catch (DataIntegrityViolationException e) {
+                // Another node stored the same content first
+                storedBlobRepository.incrementRefCount(hash);
+            }
+            return urlFor(hash);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The same content may have been stored again since the row was deleted; its new file stays
+    private void deleteFileIfUnstored(String hash) throws IOException {
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            if (!storedBlobRepository.existsById(hash)) {
+                Files.deleteIfExists(blobPath(hash));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String hash(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = bufferPool.acquire();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        } finally {
+            bufferPool.release(buffer);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private Path newTempFile() throws IOException {
+        Path tempDir = Paths.get(localStoragePath, "blobs", "tmp");
+        Files.createDirectories(tempDir);
+        return tempDir.resolve(UUID.randomUUID().toString());
+    }
+
+    private String urlFor(String hash) {
+        return URL_PREFIX + hash.substring(0, 2) + "/" + hash;
+    }
+
+    private String hashFromUrl(String fileUrl) {
+        if (fileUrl == null || !fileUrl.startsWith(URL_PREFIX)) {
+            return null;
+        }
+        String hash = fileUrl.substring(fileUrl.lastIndexOf('/') + 1);
+        return isValidHash(hash) ? hash : null;
+    }
+
+    private boolean isValidHash(String hash) {
+        return hash.length() == 64 && hash.chars().allMatch(c -> Character.digit(c, 16) >= 0);
+    }
+
+    private ReentrantLock lockFor(String hash) {
+        return locks[(hash.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.marketplace.Digital_Marketplace.services;
+
+import com.marketplace.Digital_Marketplace.config.CacheConfig;
+import com.marketplace.Digital_Marketplace.events.CategoryChangedEvent;
+import com.marketplace.Digital_Marketplace.events.ProductChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Evicts cached catalog reads once the write that staled them has committed,
+ * so a concurrent reader cannot re-cache the old row in between. Runs before
+ * CatalogVersion's bump, so nothing rendered under the new version can come
+ * from a not-yet-evicted entry.
+ */
+@Component
+public class CatalogCacheInvalidator {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        evict(CacheConfig.PRODUCTS, event.getProductId());
+        // Any product write can reorder or refill the newest page
+        clear(CacheConfig.CATALOG_FIRST_PAGE);
+        if (event.getSellerId() != null) {
+            evict(CacheConfig.SELLER_DASHBOARD, event.getSellerId());
+        } else {
+            clear(CacheConfig.SELLER_DASHBOARD);
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        clear(CacheConfig.CATEGORIES);
+        if (event.getType() != CategoryChangedEvent.Type.CREATED) {
+            // Product summaries carry the category name
+            clear(CacheConfig.PRODUCTS);
+            clear(CacheConfig.CATALOG_FIRST_PAGE);
+        }
+    }
+
+    /**
+     * For bulk imports of one seller's (unapproved) products, which publish no per-row events
+     */
+    public void evictSeller(Long sellerId) {
+        evict(CacheConfig.SELLER_DASHBOARD, sellerId);
+    }
+
+    /**
+     * For bulk writes that bypass the change events
+     */
+    public void clearAll() {
+        clear(CacheConfig.PRODUCTS);
+        clear(CacheConfig.CATALOG_FIRST_PAGE);
+        clear(CacheConfig.CATEGORIES);
+        clear(CacheConfig.SELLER_DASHBOARD);
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
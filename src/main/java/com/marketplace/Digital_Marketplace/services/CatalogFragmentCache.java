@@ -0,0 +1,91 @@
+package com.marketplace.Digital_Marketplace.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.marketplace.Digital_Marketplace.dtos.CursorPage;
+import com.marketplace.Digital_Marketplace.dtos.ProductDTO;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Rendered HTML of the catalog sections of the home page (categories and one
+ * product page), keyed by catalog version and cursor. The sections hold
+ * nothing user-specific, so one rendering serves every visitor until the
+ * catalog changes. Rendered with a plain (non-web) context so no per-request
+ * state such as URL-rewritten session ids can leak into the shared HTML.
+ */
+@Component
+public class CatalogFragmentCache {
+
+    private static final String TEMPLATE = "fragments/catalog";
+    private static final Set<String> SECTIONS = Set.of("sections");
+    // One rendering serves every visitor (and one ETag), so it must not follow Accept-Language
+    private static final Locale RENDER_LOCALE = Locale.ROOT;
+
+    @Autowired
+    private TemplateEngine templateEngine;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Value("${catalog.page-size:24}")
+    private int catalogPageSize;
+
+    @Value("${catalog.fragment-cache.max-size:64}")
+    private long maxSize;
+
+    // Renderings of superseded versions are never read again; this frees them without waiting for size eviction
+    @Value("${catalog.fragment-cache.expire-after-write:10m}")
+    private Duration expireAfterWrite;
+
+    private Cache<String, String> fragments;
+
+    @PostConstruct
+    public void init() {
+        fragments = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor is not a valid catalog cursor
+     */
+    public String render(String cursor) {
+        String normalizedCursor = cursor == null ? "" : cursor.strip();
+        // Read the version before the data so a cached rendering is never older than its key
+        String key = catalogVersion.current() + "|" + normalizedCursor;
+        String html = fragments.getIfPresent(key);
+        if (html == null) {
+            // Rendered outside the cache's lock so a bad cursor simply throws
+            html = renderSections(normalizedCursor);
+            fragments.put(key, html);
+        }
+        return html;
+    }
+
+    private String renderSections(String cursor) {
+        CursorPage<ProductDTO> page = productService.getApprovedProductPage(cursor.isEmpty() ? null : cursor,
+                                                                            catalogPageSize);
+        Context context = new Context(RENDER_LOCALE);
+        context.setVariable("categories", categoryService.getAllCategories());
+        context.setVariable("approvedProducts", page.getItems());
+        context.setVariable("nextCursor", page.getNextCursor());
+        return templateEngine.process(TEMPLATE, SECTIONS, context);
+    }
+}
@@ -0,0 +1,64 @@
+package com.marketplace.Digital_Marketplace.services;
+
+import com.marketplace.Digital_Marketplace.events.CategoryChangedEvent;
+import com.marketplace.Digital_Marketplace.events.ProductChangedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic version of everything the public catalog pages show. Bumped after
+ * each product or category write commits; seeded from the boot time so a
+ * restart (and possibly new templates) never reuses an old version.
+ * Writes committed on another node are not seen here, so the version is also
+ * bumped on a timer; that interval bounds how stale cached fragments and
+ * ETags can be in a multi-node deployment.
+ */
+@Component
+public class CatalogVersion {
+
+    private final long bootId = System.currentTimeMillis();
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    public long getBootId() {
+        return bootId;
+    }
+
+    /**
+     * Strong ETag for a catalog view; extra parts distinguish pages of the same version
+     */
+    public String etag(String view, String variant) {
+        String suffix = variant == null || variant.isEmpty() ? "" : "-" + Integer.toHexString(variant.hashCode());
+        return "\"" + view + "-" + Long.toHexString(bootId) + "-" + current() + suffix + "\"";
+    }
+
+    public void bump() {
+        version.incrementAndGet();
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.version.refresh-interval-ms:60000}")
+    public void refresh() {
+        bump();
+    }
+
+    // After CatalogCacheInvalidator's evictions, so the new version only ever sees fresh reads
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        bump();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        bump();
+    }
+}
@@ -1,8 +1,13 @@
 package com.marketplace.Digital_Marketplace.services;
 
+import com.marketplace.Digital_Marketplace.config.CacheConfig;
+import com.marketplace.Digital_Marketplace.dtos.CategoryDTO;
+import com.marketplace.Digital_Marketplace.events.CategoryChangedEvent;
 import com.marketplace.Digital_Marketplace.models.Category;
 import com.marketplace.Digital_Marketplace.repositories.CategoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import java.util.Optional;
 import java.util.List;
@@ -13,8 +18,16 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
     
-    public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    /**
+     * Cached as DTOs, never entities, since the list is shared across requests;
+     * evicted by CatalogCacheInvalidator when a category write commits
+     */
+    @Cacheable(CacheConfig.CATEGORIES)
+    public List<CategoryDTO> getAllCategories() {
+        return List.copyOf(categoryRepository.findAllSummaries());
     }
     
     public Optional<Category> getCategoryById(Long id) {
@@ -26,14 +39,19 @@ public class CategoryService {
     }
     
     public Category createCategory(Category category) {
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(saved.getId(), CategoryChangedEvent.Type.CREATED));
+        return saved;
     }
     
     public Category updateCategory(Category category) {
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(saved.getId(), CategoryChangedEvent.Type.UPDATED));
+        return saved;
     }
     
     public void deleteCategory(Long id) {
         categoryRepository.deleteById(id);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id, CategoryChangedEvent.Type.DELETED));
     }
 }
@@ -3,15 +3,26 @@ package com.marketplace.Digital_Marketplace.services;
 import com.marketplace.Digital_Marketplace.models.UploadChunk;
 import com.marketplace.Digital_Marketplace.repositories.UploadChunkRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.UUID;
 
 @Service
@@ -23,8 +34,58 @@ public class ChunkedUploadService {
     @Autowired
     private StorageService storageService;
 
+    @Autowired
+    private UploadSessionRegistry sessionRegistry;
+
+    @Autowired
+    private DirectBufferPool bufferPool;
+
+    @Autowired
+    private UploadAdmission uploadAdmission;
+
     private static final String TEMP_DIR = "temp/uploads/";
 
+    public static final String MODE_PREALLOCATED = "preallocated";
+    public static final String MODE_CHUNK_FILES = "chunk-files";
+
+    /**
+     * "preallocated" writes every chunk into one sparse target file at its offset,
+     * "chunk-files" keeps the legacy one-file-per-chunk layout and concatenates on complete.
+     */
+    @Value("${upload.mode:preallocated}")
+    private String uploadMode;
+
+    /**
+     * How many chunks of one upload a client may send at the same time
+     */
+    @Value("${upload.max-concurrent-chunks:4}")
+    private int maxConcurrentChunks;
+
+    public enum SaveResult { SAVED, ALREADY_RECEIVED, IN_PROGRESS }
+
+    @Value("${upload.chunk.min-size:256KB}")
+    private DataSize minChunkSize;
+
+    @Value("${upload.chunk.max-size:16MB}")
+    private DataSize maxChunkSize;
+
+    /**
+     * Number of requests a large upload is aimed at, so per-request overhead stays small
+     */
+    @Value("${upload.chunk.target-count:256}")
+    private int targetChunkCount;
+
+    @Value("${spring.servlet.multipart.max-file-size:1MB}")
+    private DataSize multipartMaxFileSize;
+
+    @Value("${spring.servlet.multipart.max-request-size:10MB}")
+    private DataSize multipartMaxRequestSize;
+
+    /**
+     * Room left in a multipart request for the form fields around the chunk
+     */
+    private static final long MULTIPART_OVERHEAD = 64 * 1024;
+
     /**
      * Generate a unique upload ID
      */
@@ -32,84 +93,317 @@ public class ChunkedUploadService {
         return UUID.randomUUID().toString();
     }
 
+    /**
+     * Register a new upload and prepare its temporary storage. In preallocated mode this
+     * creates a sparse file of the declared size that chunks are written into directly.
+     * @throws UploadCapacityException if the file would take temp disk below the free-space watermark
+     */
+    public UploadSession initializeUpload(String uploadId, Long sellerId, String fileName, long fileSize,
+                                          String contentType) throws IOException {
+        uploadAdmission.checkDisk(fileSize);
+
+        Path tempDir = Paths.get(TEMP_DIR);
+        Files.createDirectories(tempDir);
+
+        if (isPreallocated()) {
+            Path targetPath = targetPath(uploadId);
+            try (FileChannel channel = FileChannel.open(targetPath,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.SPARSE)) {
+                if (fileSize > 0) {
+                    // Writing the last byte sets the length without allocating the blocks in between
+                    channel.write(ByteBuffer.wrap(new byte[1]), fileSize - 1);
+                }
+            }
+        }
+
+        int chunkSize = negotiateChunkSize(fileSize);
+        int totalChunks = (int) Math.max(1, (fileSize + chunkSize - 1) / chunkSize);
+        return sessionRegistry.register(
+                new UploadSession(uploadId, sellerId, fileName, contentType, fileSize, totalChunks, chunkSize));
+    }
+
+    public int getMaxConcurrentChunks() {
+        return maxConcurrentChunks;
+    }
+
+    /**
+     * Pick a chunk size for a file: about targetChunkCount chunks, rounded up to a power of two
+     * and bounded by the configured limits and what a single multipart request may carry
+     */
+    public int negotiateChunkSize(long fileSize) {
+        long upper = Math.min(maxChunkSize.toBytes(),
+                Math.min(multipartMaxFileSize.toBytes(), multipartMaxRequestSize.toBytes() - MULTIPART_OVERHEAD));
+        long lower = Math.min(minChunkSize.toBytes(), upper);
+
+        long wanted = Math.max(1, fileSize / Math.max(1, targetChunkCount));
+        long rounded = Long.highestOneBit(wanted);
+        if (rounded < wanted) {
+            rounded <<= 1;
+        }
+        return (int) Math.max(lower, Math.min(upper, rounded));
+    }
+
+    /**
+     * Look up the in-memory session for an upload, rebuilding it from the chunk log
+     * if this node has not seen it (e.g. after a restart)
+     */
+    public Optional<UploadSession> getSession(String uploadId) {
+        return sessionRegistry.findOrLoad(uploadId, this::loadSession);
+    }
+
+    /**
+     * The upload's session if it belongs to the given user. Someone else's upload
+     * is reported as absent so its existence is not revealed.
+     */
+    public Optional<UploadSession> getOwnedSession(String uploadId, Long sellerId) {
+        return getSession(uploadId).filter(session -> session.isOwnedBy(sellerId));
+    }
+
+    private UploadSession loadSession(String uploadId) {
+        List<UploadChunk> chunks = uploadChunkRepository.findByUploadId(uploadId);
+        if (chunks.isEmpty()) {
+            return null;
+        }
+
+        UploadChunk first = chunks.get(0);
+
+        // Every row records the size negotiated at init; rows logged before that column
+        // existed fall back to a full-sized (not last) chunk
+        int chunkSize = chunks.stream()
+                .filter(chunk -> chunk.getSessionChunkSize() != null)
+                .mapToInt(UploadChunk::getSessionChunkSize)
+                .findFirst()
+                .orElseGet(() -> chunks.stream()
+                        .filter(chunk -> chunk.getChunkNumber() < chunk.getTotalChunks() - 1)
+                        .mapToInt(chunk -> (int) chunk.getChunkSize())
+                        .findFirst()
+                        // A single chunk covers the whole file
+                        .orElse(first.getTotalChunks() == 1 ? (int) Math.max(1, first.getTotalFileSize()) : 0));
+        if (chunkSize <= 0) {
+            System.err.println("Upload " + uploadId + " has no recorded chunk size, cannot resume it");
+            return null;
+        }
+
+        UploadSession session = new UploadSession(uploadId, first.getSellerId(), first.getFileName(),
+                first.getContentType(), first.getTotalFileSize(), first.getTotalChunks(), chunkSize);
+        for (UploadChunk chunk : chunks) {
+            session.markReceived(chunk.getChunkNumber(), chunk.getChunkSize());
+        }
+        return session;
+    }
+
     /**
      * Check if a chunk already exists
      */
     public boolean chunkExists(String uploadId, int chunkNumber) {
-        return uploadChunkRepository.findByUploadIdAndChunkNumber(uploadId, chunkNumber).isPresent();
+        return getSession(uploadId)
+                .map(session -> session.isReceived(chunkNumber))
+                .orElse(false);
     }
 
     /**
-     * Save a chunk to the database and temporary storage
+     * Save a multipart chunk to temporary storage and append it to the chunk log
      */
-    public void saveChunk(String uploadId, int chunkNumber, int totalChunks,
-                         String fileName, String contentType, long totalFileSize,
-                         MultipartFile chunk) throws IOException {
+    public SaveResult saveChunk(String uploadId, int chunkNumber, MultipartFile chunk, Long sellerId)
+            throws IOException {
+        try (InputStream in = chunk.getInputStream()) {
+            return saveChunk(uploadId, chunkNumber, in, chunk.getSize(), sellerId);
+        }
+    }
 
-        // Create temp directory if it doesn't exist
-        Path tempDir = Paths.get(TEMP_DIR);
-        if (!Files.exists(tempDir)) {
-            Files.createDirectories(tempDir);
+    /**
+     * Stream a raw chunk body straight to disk and append it to the chunk log.
+     * A negative contentLength means the length is unknown and the body is read to EOF.
+     * Chunks may arrive out of order and concurrently; each chunk is written at most once.
+     * The chunk's bytes are reserved with UploadAdmission for the duration of the write.
+     * @throws UploadCapacityException if the upload byte budgets are exhausted; nothing was written
+     */
+    public SaveResult saveChunk(String uploadId, int chunkNumber, InputStream body, long contentLength,
+                                Long sellerId) throws IOException {
+
+        UploadSession session = getOwnedSession(uploadId, sellerId)
+                .orElseThrow(() -> new IOException("Upload not initialized: " + uploadId));
+        if (!session.isActive()) {
+            throw new IOException("Upload " + uploadId + " is no longer accepting chunks");
+        }
+        if (!session.isValidChunk(chunkNumber)) {
+            throw new IOException("Chunk " + chunkNumber + " out of range for upload " + uploadId);
+        }
+
+        long expectedLength = expectedChunkLength(session, chunkNumber);
+        if (contentLength >= 0 && contentLength != expectedLength) {
+            throw new IOException("Chunk " + chunkNumber + " has " + contentLength
+                    + " bytes, expected " + expectedLength);
+        }
+
+        if (session.isReceived(chunkNumber)) {
+            return SaveResult.ALREADY_RECEIVED;
+        }
+        if (!session.tryClaim(chunkNumber)) {
+            // Either it just completed or another request is writing it right now
+            return session.isReceived(chunkNumber) ? SaveResult.ALREADY_RECEIVED : SaveResult.IN_PROGRESS;
         }
 
-        // Save chunk data to temp file
-        Path chunkPath = tempDir.resolve(uploadId + "_chunk_" + chunkNumber);
-        Files.write(chunkPath, chunk.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        Path chunkPath;
+        try (UploadAdmission.Reservation reservation = uploadAdmission.reserve(sellerId, expectedLength);
+             ReadableByteChannel source = Channels.newChannel(body)) {
+            chunkPath = writeChunk(session, chunkNumber, source, expectedLength);
+        } catch (IOException | RuntimeException e) {
+            session.releaseClaim(chunkNumber);
+            throw e;
+        }
+
+        if (!session.markReceived(chunkNumber, expectedLength)) {
+            return SaveResult.ALREADY_RECEIVED;
+        }
+        if (!session.isActive()) {
+            // Cancelled or finalized while this chunk was being written; nothing left to log it against
+            return SaveResult.SAVED;
+        }
 
-        // Save chunk metadata to database
+        // Durable log of received chunks, only read back when rebuilding a session
         UploadChunk uploadChunk = new UploadChunk();
         uploadChunk.setUploadId(uploadId);
+        uploadChunk.setSellerId(session.getSellerId());
         uploadChunk.setChunkNumber(chunkNumber);
-        uploadChunk.setTotalChunks(totalChunks);
-        uploadChunk.setFileName(fileName);
-        uploadChunk.setContentType(contentType);
-        uploadChunk.setTotalFileSize(totalFileSize);
-        uploadChunk.setChunkSize(chunk.getSize());
+        uploadChunk.setTotalChunks(session.getTotalChunks());
+        uploadChunk.setFileName(session.getFileName());
+        uploadChunk.setContentType(session.getContentType());
+        uploadChunk.setTotalFileSize(session.getTotalFileSize());
+        uploadChunk.setChunkSize(expectedLength);
+        uploadChunk.setSessionChunkSize(session.getChunkSize());
         uploadChunk.setChunkPath(chunkPath.toString());
 
-        uploadChunkRepository.save(uploadChunk);
+        try {
+            uploadChunkRepository.save(uploadChunk);
+        } catch (DataIntegrityViolationException e) {
+            // Already logged by another node handling a retry of the same chunk
+        }
+        return SaveResult.SAVED;
+    }
+
+    /**
+     * Every chunk is full-sized except possibly the last one
+     */
+    private long expectedChunkLength(UploadSession session, int chunkNumber) {
+        long offset = (long) chunkNumber * session.getChunkSize();
+        return Math.max(0, Math.min(session.getChunkSize(), session.getTotalFileSize() - offset));
+    }
+
+    /**
+     * Copy chunk bytes to disk through a pooled direct buffer and return the file they landed in
+     */
+    private Path writeChunk(UploadSession session, int chunkNumber, ReadableByteChannel source,
+                            long expectedLength) throws IOException {
+        String uploadId = session.getUploadId();
+        Path path;
+        long position;
+        if (isPreallocated()) {
+            path = targetPath(uploadId);
+            position = (long) chunkNumber * session.getChunkSize();
+        } else {
+            Path tempDir = Paths.get(TEMP_DIR);
+            Files.createDirectories(tempDir);
+            path = tempDir.resolve(uploadId + "_chunk_" + chunkNumber);
+            position = 0;
+        }
+
+        ByteBuffer buffer = bufferPool.acquire();
+        try (FileChannel channel = openChunkTarget(uploadId, path)) {
+            long written = 0;
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                if (written + buffer.remaining() > expectedLength) {
+                    throw new IOException("Chunk " + chunkNumber + " exceeds expected " + expectedLength + " bytes");
+                }
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer, position + written);
+                }
+                buffer.clear();
+            }
+            if (written != expectedLength) {
+                throw new IOException("Chunk " + chunkNumber + " truncated: expected " + expectedLength
+                        + " bytes, got " + written);
+            }
+        } finally {
+            bufferPool.release(buffer);
+        }
+        return path;
+    }
+
+    /**
+     * The preallocated file is opened without CREATE, so a chunk racing a cancel or cleanup
+     * cannot bring back a deleted .part file as an empty sparse one
+     */
+    private FileChannel openChunkTarget(String uploadId, Path path) throws IOException {
+        if (!isPreallocated()) {
+            return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        }
+        try {
+            return FileChannel.open(path, StandardOpenOption.WRITE);
+        } catch (NoSuchFileException e) {
+            throw new IOException("Upload not initialized: " + uploadId);
+        }
     }
 
     /**
      * Check if upload is complete
      */
-    public boolean isUploadComplete(String uploadId, int totalChunks) {
-        long uploadedChunks = uploadChunkRepository.countByUploadId(uploadId);
-        return uploadedChunks == totalChunks;
+    public boolean isUploadComplete(String uploadId) {
+        return getSession(uploadId)
+                .map(UploadSession::isComplete)
+                .orElse(false);
     }
 
     /**
      * Get upload progress as percentage
      */
-    public int getUploadProgress(String uploadId, int totalChunks) {
-        long uploadedChunks = uploadChunkRepository.countByUploadId(uploadId);
-        return (int) ((uploadedChunks * 100.0) / totalChunks);
+    public int getUploadProgress(String uploadId) {
+        return getSession(uploadId)
+                .map(UploadSession::getProgress)
+                .orElse(0);
     }
 
     /**
      * Assemble chunks into final file and store it
      */
     public String assembleAndStoreFile(String uploadId, String folder) throws IOException {
-        // Get all chunks for this upload
-        List<UploadChunk> chunks = uploadChunkRepository.findByUploadIdOrderByChunkNumber(uploadId);
+        UploadSession session = getSession(uploadId)
+                .orElseThrow(() -> new IOException("No chunks found for upload: " + uploadId));
 
-        if (chunks.isEmpty()) {
-            throw new IOException("No chunks found for upload: " + uploadId);
+        if (!session.isComplete()) {
+            throw new IOException("Upload " + uploadId + " is missing chunks: "
+                    + session.getReceivedChunks() + " of " + session.getTotalChunks() + " received");
         }
 
+        if (isPreallocated()) {
+            // Chunks were written in place, so the target only has to be moved into storage
+            String fileUrl = storageService.storeFile(targetPath(uploadId), session.getFileName(), folder);
+            cleanupUpload(uploadId);
+            return fileUrl;
+        }
+
+        // Get all chunks for this upload
+        List<UploadChunk> chunks = uploadChunkRepository.findByUploadIdOrderByChunkNumber(uploadId);
+
         // Create temp file for assembly
         Path tempDir = Paths.get(TEMP_DIR);
-        String fileName = chunks.get(0).getFileName();
+        String fileName = session.getFileName();
         Path assembledFile = tempDir.resolve(uploadId + "_assembled_" + fileName);
 
         // Assemble chunks
         try {
-            for (UploadChunk chunk : chunks) {
-                Path chunkPath = Paths.get(chunk.getChunkPath());
-                if (Files.exists(chunkPath)) {
-                    byte[] chunkData = Files.readAllBytes(chunkPath);
-                    Files.write(assembledFile, chunkData,
-                              Files.exists(assembledFile) ? StandardOpenOption.APPEND : StandardOpenOption.CREATE);
+            try (FileChannel out = FileChannel.open(assembledFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (UploadChunk chunk : chunks) {
+                    Path chunkPath = Paths.get(chunk.getChunkPath());
+                    try (FileChannel in = FileChannel.open(chunkPath, StandardOpenOption.READ)) {
+                        long size = in.size();
+                        long copied = 0;
+                        while (copied < size) {
+                            copied += in.transferTo(copied, size - copied, out);
+                        }
+                    }
                 }
             }
 
@@ -123,26 +417,36 @@ public class ChunkedUploadService {
 
         } catch (Exception e) {
             // Clean up on error
-            if (Files.exists(assembledFile)) {
-                Files.delete(assembledFile);
-            }
+            Files.deleteIfExists(assembledFile);
             throw new IOException("Failed to assemble file: " + e.getMessage(), e);
         }
     }
 
     /**
-     * Clean up temporary files and database records
+     * Cancel an upload and discard everything received so far.
+     * Returns the bytes reclaimed, or empty if the upload is being finalized or was already cancelled.
      */
-    private void cleanupUpload(String uploadId) {
+    public OptionalLong cancelUpload(UploadSession session) {
+        if (!session.tryCancel()) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(cleanupUpload(session.getUploadId()));
+    }
+
+    /**
+     * Clean up temporary files and database records. Returns the number of bytes freed on disk.
+     */
+    public long cleanupUpload(String uploadId) {
+        long reclaimed = 0;
         try {
             // Delete temp chunk files
-            List<UploadChunk> chunks = uploadChunkRepository.findByUploadId(uploadId);
-            for (UploadChunk chunk : chunks) {
-                Path chunkPath = Paths.get(chunk.getChunkPath());
-                if (Files.exists(chunkPath)) {
-                    Files.delete(chunkPath);
+            if (!isPreallocated()) {
+                List<UploadChunk> chunks = uploadChunkRepository.findByUploadId(uploadId);
+                for (UploadChunk chunk : chunks) {
+                    reclaimed += deleteTempFile(Paths.get(chunk.getChunkPath()));
                 }
             }
+            reclaimed += deleteTempFile(targetPath(uploadId));
 
             // Delete database records
             uploadChunkRepository.deleteByUploadId(uploadId);
@@ -150,6 +454,33 @@ public class ChunkedUploadService {
         } catch (Exception e) {
             // Log error but don't throw - cleanup is best effort
             System.err.println("Warning: Failed to cleanup upload " + uploadId + ": " + e.getMessage());
+        } finally {
+            sessionRegistry.remove(uploadId);
+        }
+        return reclaimed;
+    }
+
+    /**
+     * Delete a temp file if present and return the disk space it occupied
+     */
+    public long deleteTempFile(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
         }
+        long size = Files.size(path);
+        Files.deleteIfExists(path);
+        return size;
+    }
+
+    public Path getTempDir() {
+        return Paths.get(TEMP_DIR);
+    }
+
+    private boolean isPreallocated() {
+        return MODE_PREALLOCATED.equalsIgnoreCase(uploadMode);
+    }
+
+    private Path targetPath(String uploadId) {
+        return Paths.get(TEMP_DIR).resolve(uploadId + ".part");
     }
 }
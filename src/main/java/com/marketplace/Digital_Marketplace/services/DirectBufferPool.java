@@ -0,0 +1,61 @@
+package com.marketplace.Digital_Marketplace.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Small pool of direct buffers used to stream request bodies to disk.
+ * Heap use per chunk stays bounded by the buffer size, not the chunk size.
+ * At most poolSize direct buffers are ever allocated, so direct memory stays bounded
+ * however many chunks arrive at once; a burst beyond that is served heap buffers.
+ */
+@Component
+public class DirectBufferPool {
+
+    private final int bufferSize;
+    private final int poolSize;
+    private final BlockingQueue<ByteBuffer> pool;
+    private final AtomicInteger allocated = new AtomicInteger();
+
+    public DirectBufferPool(@Value("${upload.buffer.size:65536}") int bufferSize,
+                            @Value("${upload.buffer.pool-size:64}") int poolSize) {
+        this.bufferSize = bufferSize;
+        this.poolSize = poolSize;
+        this.pool = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    /**
+     * Take a cleared buffer from the pool. If it is empty, a new direct buffer is allocated
+     * while fewer than poolSize exist, otherwise a heap buffer that is never pooled.
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = pool.poll();
+        if (buffer == null) {
+            if (allocated.getAndUpdate(n -> n < poolSize ? n + 1 : n) < poolSize) {
+                buffer = ByteBuffer.allocateDirect(bufferSize);
+            } else {
+                buffer = ByteBuffer.allocate(bufferSize);
+            }
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Return a buffer; heap buffers from a burst are left to the GC
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer != null && buffer.isDirect() && buffer.capacity() == bufferSize) {
+            pool.offer(buffer);
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+}
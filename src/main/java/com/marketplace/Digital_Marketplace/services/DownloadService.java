@@ -0,0 +1,100 @@
+package com.marketplace.Digital_Marketplace.services;
+
+import com.marketplace.Digital_Marketplace.models.OrderItem;
+import com.marketplace.Digital_Marketplace.models.ProductFile;
+import com.marketplace.Digital_Marketplace.repositories.OrderItemRepository;
+import com.marketplace.Digital_Marketplace.repositories.ProductFileRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Decides who may download a product file and tracks purchase download limits
+ */
+@Service
+public class DownloadService {
+
+    public static final List<String> PAID_STATUSES = List.of("PAID", "COMPLETED");
+
+    @Autowired
+    private ProductFileRepository productFileRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private StorageService storageService;
+
+    /**
+     * A file the current user may download. orderItem is null when the seller downloads their own file;
+     * productSize is the recorded size of all the product's files, which the limit is counted in.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Download {
+        private final ProductFile file;
+        private final Path path;
+        private final OrderItem orderItem;
+        private final long productSize;
+    }
+
+    /**
+     * Resolve a product file for the given user, who must be its seller or have a paid order for it
+     */
+    public Download prepare(Long fileId, Long userId) {
+        ProductFile file = productFileRepository.findWithProductById(fileId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "File not found"));
+
+        OrderItem orderItem = null;
+        if (!file.getProduct().getSeller().getId().equals(userId)) {
+            orderItem = orderItemRepository.findPurchases(userId, file.getProduct().getId(), PAID_STATUSES)
+                    .stream()
+                    .findFirst()
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.FORBIDDEN, "Product not purchased"));
+        }
+
+        Path path = storageService.resolveLocalPath(file.getFileUrl())
+                .filter(Files::isRegularFile)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "File not available"));
+
+        long productSize = orderItem != null
+                ? productFileRepository.sumFileSizeByProductId(file.getProduct().getId())
+                : 0;
+        return new Download(file, path, orderItem, productSize);
+    }
+
+    /**
+     * Reserve the bytes of a response against the purchase's limit of downloadLimit copies of the
+     * whole product, so splitting a file into ranges costs as much as fetching it whole and any
+     * mix of the product's files may be fetched. Returns false once the limit is used up.
+     */
+    public boolean recordDownload(Download download, long bytes, long fileSize) {
+        if (download.getOrderItem() == null || bytes <= 0) {
+            return true;
+        }
+        return orderItemRepository.addDownloadedBytes(download.getOrderItem().getId(), bytes,
+                copySize(download, fileSize)) > 0;
+    }
+
+    /**
+     * Give back the part of a reservation that was not sent, e.g. when the client disconnected
+     */
+    public void refundDownload(Download download, long bytes, long fileSize) {
+        if (download.getOrderItem() == null || bytes <= 0) {
+            return;
+        }
+        orderItemRepository.refundDownloadedBytes(download.getOrderItem().getId(), bytes, copySize(download, fileSize));
+    }
+
+    // Recorded sizes can be missing or stale; a copy is never smaller than the file being served
+    private long copySize(Download download, long fileSize) {
+        return Math.max(1, Math.max(download.getProductSize(), fileSize));
+    }
+}
@@ -0,0 +1,356 @@
+package com.marketplace.Digital_Marketplace.services;
+
+import com.marketplace.Digital_Marketplace.dtos.CategoryDTO;
+import com.marketplace.Digital_Marketplace.dtos.ImportReport;
+import com.marketplace.Digital_Marketplace.dtos.ProductImportRow;
+import com.marketplace.Digital_Marketplace.models.Category;
+import com.marketplace.Digital_Marketplace.models.Product;
+import com.marketplace.Digital_Marketplace.models.ProductFile;
+import com.marketplace.Digital_Marketplace.models.User;
+import com.marketplace.Digital_Marketplace.repositories.ProductFileRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Streams CSV or JSON-lines product listings into the catalog. Rows are
+ * validated one by one and persisted in batches, one transaction per batch;
+ * with table-allocated ids Hibernate sends each batch as batched INSERTs.
+ * A batch that fails in the database is retried row by row so the error can
+ * be pinned to its line.
+ *
+ * Imported products are pending review, so they publish no per-row change
+ * events: they enter search and facets when approved.
+ */
+@Service
+public class ProductImportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final List<String> CSV_COLUMNS = List.of(
+            "name", "description", "price", "category", "previewImageUrl",
+            "fileUrl", "fileName", "fileType", "fileSize");
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private ProductFileRepository productFileRepository;
+
+    @Autowired
+    private CatalogCacheInvalidator catalogCacheInvalidator;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Value("${import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${import.max-rows:200000}")
+    private long maxRows;
+
+    @Value("${import.max-errors:1000}")
+    private int maxErrors;
+
+    private record ParsedRow(long line, ProductImportRow row, Long categoryId) {
+    }
+
+    public ImportReport importProducts(Long sellerId, InputStream in, String format) throws IOException {
+        ImportReport report = new ImportReport();
+        Map<String, Long> categoriesByName = new HashMap<>();
+        Set<Long> categoryIds = new HashSet<>();
+        for (CategoryDTO category : categoryService.getAllCategories()) {
+            categoriesByName.put(category.getName().toLowerCase(Locale.ROOT), category.getId());
+            categoryIds.add(category.getId());
+        }
+
+        // Blob URLs the seller was found to hold, so repeated files cost one lookup
+        Set<String> sellerBlobs = new HashSet<>();
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<ParsedRow> batch = new ArrayList<>(batchSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        Map<String, Integer> csvHeader = null;
+        long lineNumber = 0;
+        long rows = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (FORMAT_CSV.equals(format) && csvHeader == null) {
+                csvHeader = parseCsvHeader(line);
+                continue;
+            }
+            if (++rows > maxRows) {
+                addError(report, lineNumber, "Row limit of " + maxRows + " reached; remaining input ignored");
+                break;
+            }
+
+            ProductImportRow row;
+            try {
+                row = FORMAT_CSV.equals(format)
+                        ? fromCsv(line, csvHeader)
+                        : jsonMapper.readValue(line, ProductImportRow.class);
+                Long categoryId = validate(sellerId, row, categoriesByName, categoryIds, sellerBlobs);
+                batch.add(new ParsedRow(lineNumber, row, categoryId));
+            } catch (RuntimeException e) {
+                addError(report, lineNumber, e.getMessage());
+                continue;
+            }
+
+            if (batch.size() >= batchSize) {
+                persistBatch(sellerId, batch, transaction, report);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            persistBatch(sellerId, batch, transaction, report);
+        }
+
+        if (report.getImported() > 0) {
+            catalogCacheInvalidator.evictSeller(sellerId);
+        }
+        return report;
+    }
+
+    private void persistBatch(Long sellerId, List<ParsedRow> batch, TransactionTemplate transaction,
+                              ImportReport report) {
+        try {
+            transaction.executeWithoutResult(status -> persistRows(sellerId, batch));
+            report.setImported(report.getImported() + batch.size());
+        } catch (RuntimeException batchFailure) {
+            // Isolate the offending rows; the rest of the batch still goes in
+            for (ParsedRow parsed : batch) {
+                try {
+                    transaction.executeWithoutResult(status -> persistRows(sellerId, List.of(parsed)));
+                    report.setImported(report.getImported() + 1);
+                } catch (RuntimeException rowFailure) {
+                    addError(report, parsed.line(), rootMessage(rowFailure));
+                }
+            }
+        }
+    }
+
+    private void persistRows(Long sellerId, List<ParsedRow> rows) {
+        User seller = entityManager.getReference(User.class, sellerId);
+        LocalDateTime now = LocalDateTime.now();
+        for (ParsedRow parsed : rows) {
+            ProductImportRow row = parsed.row();
+            Product product = new Product();
+            product.setName(row.getName().strip());
+            product.setDescription(row.getDescription());
+            product.setPrice(row.getPrice());
+            product.setPreviewImageUrl(row.getPreviewImageUrl());
+            product.setSeller(seller);
+            if (parsed.categoryId() != null) {
+                product.setCategory(entityManager.getReference(Category.class, parsed.categoryId()));
+            }
+            product.setCreatedAt(now);
+            product.setUpdatedAt(now);
+
+            ProductFile file = new ProductFile();
+            file.setFileName(row.getFileName());
+            file.setFileUrl(row.getFileUrl());
+            file.setFileType(row.getFileType());
+            file.setFileSize(row.getFileSize());
+            file.setCreatedAt(now);
+            file.setProduct(product);
+            product.getFiles().add(file);
+
+            // The blob reference commits or rolls back together with the row that holds it
+            if (!storageService.retainFile(row.getFileUrl())) {
+                throw new IllegalStateException("file " + row.getFileUrl() + " is not stored");
+            }
+            entityManager.persist(product);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * @return the resolved category id, or null when the row has none
+     * @throws IllegalArgumentException describing the first problem found
+     */
+    private Long validate(Long sellerId, ProductImportRow row, Map<String, Long> categoriesByName,
+                          Set<Long> categoryIds, Set<String> sellerBlobs) {
+        if (row == null || row.getName() == null || row.getName().isBlank()) {
+            throw new IllegalArgumentException("name is required");
+        }
+        if (row.getName().strip().length() > 200) {
+            throw new IllegalArgumentException("name is longer than 200 characters");
+        }
+        if (row.getPrice() == null || row.getPrice().signum() < 0 || row.getPrice().compareTo(MAX_PRICE) > 0) {
+            throw new IllegalArgumentException("price must be between 0 and " + MAX_PRICE);
+        }
+        if (row.getPrice().scale() > 2) {
+            throw new IllegalArgumentException("price has more than 2 decimal places");
+        }
+        String fileUrl = row.getFileUrl();
+        if (fileUrl == null || fileUrl.isBlank()) {
+            throw new IllegalArgumentException("fileUrl is required");
+        }
+        // Only files already in our blob store or hosted elsewhere; never another seller's local path
+        if (!storageService.isBlobUrl(fileUrl) && !fileUrl.startsWith("https://") && !fileUrl.startsWith("http://")) {
+            throw new IllegalArgumentException("fileUrl must be a stored blob URL or an http(s) URL");
+        }
+        // A blob URL is only a hash away from someone else's paid file, so it must already be the seller's
+        if (storageService.isBlobUrl(fileUrl) && !sellerBlobs.contains(fileUrl)) {
+            if (productFileRepository.findFirstByFileUrlAndProductSellerId(fileUrl, sellerId).isEmpty()) {
+                throw new IllegalArgumentException("fileUrl is not one of your stored files");
+            }
+            sellerBlobs.add(fileUrl);
+        }
+        if (row.getFileName() == null || row.getFileName().isBlank()) {
+            row.setFileName(fileUrl.substring(fileUrl.lastIndexOf('/') + 1));
+        }
+        if (row.getFileSize() != null && row.getFileSize() < 0) {
+            throw new IllegalArgumentException("fileSize must not be negative");
+        }
+
+        String category = row.getCategory();
+        if (category == null || category.isBlank()) {
+            return null;
+        }
+        Long byName = categoriesByName.get(category.strip().toLowerCase(Locale.ROOT));
+        if (byName != null) {
+            return byName;
+        }
+        try {
+            Long id = Long.parseLong(category.strip());
+            if (categoryIds.contains(id)) {
+                return id;
+            }
+        } catch (NumberFormatException ignored) {
+            // fall through
+        }
+        throw new IllegalArgumentException("unknown category: " + category);
+    }
+
+    private Map<String, Integer> parseCsvHeader(String line) {
+        List<String> names = splitCsv(line);
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            header.put(names.get(i).strip(), i);
+        }
+        if (!header.containsKey("name") || !header.containsKey("price") || !header.containsKey("fileUrl")) {
+            throw new IllegalArgumentException("CSV header must include name, price and fileUrl; known columns: "
+                    + String.join(",", CSV_COLUMNS));
+        }
+        return header;
+    }
+
+    private ProductImportRow fromCsv(String line, Map<String, Integer> header) {
+        List<String> values = splitCsv(line);
+        ProductImportRow row = new ProductImportRow();
+        row.setName(column(values, header, "name"));
+        row.setDescription(column(values, header, "description"));
+        String price = column(values, header, "price");
+        try {
+            row.setPrice(price == null ? null : new BigDecimal(price.strip()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("price is not a number: " + price);
+        }
+        row.setCategory(column(values, header, "category"));
+        row.setPreviewImageUrl(column(values, header, "previewImageUrl"));
+        row.setFileUrl(column(values, header, "fileUrl"));
+        row.setFileName(column(values, header, "fileName"));
+        row.setFileType(column(values, header, "fileType"));
+        String fileSize = column(values, header, "fileSize");
+        try {
+            row.setFileSize(fileSize == null ? null : Long.parseLong(fileSize.strip()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("fileSize is not a number: " + fileSize);
+        }
+        return row;
+    }
+
+    private static String column(List<String> values, Map<String, Integer> header, String name) {
+        Integer index = header.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    // RFC 4180 fields within one line: quoted fields may contain commas and "" escapes
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private void addError(ImportReport report, long line, String message) {
+        report.setFailed(report.getFailed() + 1);
+        note(report, line, message);
+    }
+
+    private void note(ImportReport report, long line, String message) {
+        if (report.getErrors().size() < maxErrors) {
+            report.getErrors().add(new ImportReport.RowError(line, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
+}
@@ -1,9 +1,28 @@
 package com.marketplace.Digital_Marketplace.services;
 
+import com.marketplace.Digital_Marketplace.config.CacheConfig;
+import com.marketplace.Digital_Marketplace.dtos.CatalogCursor;
+import com.marketplace.Digital_Marketplace.dtos.CursorPage;
+import com.marketplace.Digital_Marketplace.dtos.ProductDTO;
+import com.marketplace.Digital_Marketplace.dtos.SellerDashboardStats;
+import com.marketplace.Digital_Marketplace.events.ProductChangedEvent;
+import com.marketplace.Digital_Marketplace.events.ProductFilesReleasedEvent;
 import com.marketplace.Digital_Marketplace.models.Product;
+import com.marketplace.Digital_Marketplace.models.ProductFile;
+import com.marketplace.Digital_Marketplace.repositories.ProductFileRepository;
+import com.marketplace.Digital_Marketplace.repositories.ProductRatingStatsRepository;
 import com.marketplace.Digital_Marketplace.repositories.ProductRepository;
+import com.marketplace.Digital_Marketplace.search.ProductSearchService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Optional;
 import java.util.List;
 
@@ -12,6 +31,24 @@ public class ProductService {
     
     @Autowired
     private ProductRepository productRepository;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private ProductFileRepository productFileRepository;
+
+    @Autowired
+    private ProductRatingStatsRepository ratingStatsRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${catalog.max-page-size:100}")
+    private int maxPageSize;
     
     public List<Product> getAllProducts() {
         return productRepository.findAll();
@@ -21,10 +58,56 @@ public class ProductService {
         return productRepository.findByApprovedTrue();
     }
     
+    /**
+     * One page of approved products, newest first. Pass the previous page's
+     * nextCursor to continue; cost does not grow with how deep the page is.
+     * The first page is cached per size.
+     */
+    @Cacheable(value = CacheConfig.CATALOG_FIRST_PAGE, key = "#size",
+               condition = "#cursor == null || #cursor.isBlank()")
+    public CursorPage<ProductDTO> getApprovedProductPage(String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        // Fetch one extra row to know whether another page follows
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<ProductDTO> products;
+        if (cursor == null || cursor.isBlank()) {
+            products = productRepository.findApprovedFirstPage(limit);
+        } else {
+            CatalogCursor position = CatalogCursor.decode(cursor);
+            products = productRepository.findApprovedAfter(position.getCreatedAt(), position.getId(), limit);
+        }
+
+        return toCursorPage(products, pageSize);
+    }
+    
+    // Trims the look-ahead row and derives the next cursor from the last item
+    private static CursorPage<ProductDTO> toCursorPage(List<ProductDTO> products, int pageSize) {
+        boolean hasMore = products.size() > pageSize;
+        if (hasMore) {
+            products = products.subList(0, pageSize);
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            ProductDTO last = products.get(products.size() - 1);
+            nextCursor = new CatalogCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(List.copyOf(products), nextCursor, hasMore);
+    }
+    
     public Optional<Product> getProductById(Long id) {
         return productRepository.findById(id);
     }
     
+    /**
+     * Cached read-only view of a product, for lookups that do not modify it
+     */
+    @Cacheable(value = CacheConfig.PRODUCTS, unless = "#result == null")
+    public Optional<ProductDTO> getProductSummary(Long id) {
+        List<ProductDTO> rows = productRepository.findSummariesByIdIn(List.of(id));
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+    }
+    
     public List<Product> getProductsBySeller(Long sellerId) {
         return productRepository.findBySellerId(sellerId);
     }
@@ -33,19 +116,104 @@ public class ProductService {
         return productRepository.findByCategoryId(categoryId);
     }
     
-    public List<Product> searchProducts(String keyword) {
-        return productRepository.searchProducts(keyword);
+    /**
+     * One page of a seller's own products, newest first, for the dashboard
+     */
+    public CursorPage<ProductDTO> getSellerProductPage(Long sellerId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<ProductDTO> products;
+        if (cursor == null || cursor.isBlank()) {
+            products = productRepository.findSellerFirstPage(sellerId, limit);
+        } else {
+            CatalogCursor position = CatalogCursor.decode(cursor);
+            products = productRepository.findSellerAfter(sellerId, position.getCreatedAt(), position.getId(), limit);
+        }
+        return toCursorPage(products, pageSize);
+    }
+    
+    /**
+     * Cached; evicted when one of the seller's products or reviews changes
+     */
+    @Cacheable(CacheConfig.SELLER_DASHBOARD)
+    public SellerDashboardStats getSellerDashboardStats(Long sellerId) {
+        return productRepository.getSellerDashboardStats(sellerId);
+    }
+    
+    /**
+     * Ranked full-text search over approved products
+     */
+    public Page<ProductDTO> searchProducts(String query, int page, int size) {
+        return productSearchService.search(query, page, size);
     }
     
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId(), saved.getSeller().getId(),
+                                                            ProductChangedEvent.Type.CREATED));
+        return saved;
+    }
+    
+    /**
+     * Create a product whose files are already stored. The blob references are taken in
+     * the same transaction as the product row, so neither can commit without the other.
+     *
+     * @throws IOException if a referenced blob no longer exists
+     */
+    @Transactional(rollbackFor = IOException.class)
+    public Product createProductFromStoredFiles(Product product) throws IOException {
+        for (ProductFile file : product.getFiles()) {
+            if (!storageService.retainFile(file.getFileUrl())) {
+                throw new IOException("Stored file no longer exists: " + file.getFileUrl());
+            }
+        }
+        return createProduct(product);
+    }
+    
+    /**
+     * One of the seller's own product files with this URL, proving the seller may reuse it
+     */
+    public Optional<ProductFile> findSellerFile(Long sellerId, String fileUrl) {
+        return productFileRepository.findFirstByFileUrlAndProductSellerId(fileUrl, sellerId);
     }
     
     public Product updateProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId(), saved.getSeller().getId(),
+                                                            ProductChangedEvent.Type.UPDATED));
+        return saved;
     }
     
+    @Transactional
+    public Optional<Product> approveProduct(Long id) {
+        Optional<Product> product = productRepository.findById(id);
+        product.ifPresent(p -> {
+            p.setApproved(true);
+            eventPublisher.publishEvent(new ProductChangedEvent(p.getId(), p.getSeller().getId(),
+                                                                ProductChangedEvent.Type.APPROVED));
+        });
+        return product;
+    }
+    
+    @Transactional
     public void deleteProduct(Long id) {
+        Optional<Product> product = productRepository.findById(id);
+        List<String> fileUrls = new ArrayList<>();
+        product.ifPresent(p -> {
+            p.getFiles().forEach(file -> fileUrls.add(file.getFileUrl()));
+            // Previews stored while dedup covered every folder are blobs too
+            if (storageService.isBlobUrl(p.getPreviewImageUrl())) {
+                fileUrls.add(p.getPreviewImageUrl());
+            }
+        });
+        Long sellerId = product.map(p -> p.getSeller().getId()).orElse(null);
+
+        // Stats go first; ON DELETE CASCADE covers schemas created from sql/create.sql
+        ratingStatsRepository.deleteByProductId(id);
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, sellerId, ProductChangedEvent.Type.DELETED));
+        // Blob references are dropped once the delete commits (StoredFileReleaser)
+        eventPublisher.publishEvent(new ProductFilesReleasedEvent(id, fileUrls));
     }
 }
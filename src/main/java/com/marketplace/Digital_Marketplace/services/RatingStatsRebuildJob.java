@@ -0,0 +1,48 @@
+package com.marketplace.Digital_Marketplace.services;
+
+import com.marketplace.Digital_Marketplace.repositories.ProductRatingStatsRepository;
+import com.marketplace.Digital_Marketplace.search.ProductFacetService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recomputes rating aggregates from the reviews table to repair any drift
+ * (manual SQL edits, writes that bypassed ReviewService)
+ */
+@Component
+public class RatingStatsRebuildJob {
+
+    @Autowired
+    private ProductRatingStatsRepository ratingStatsRepository;
+
+    @Autowired
+    private CatalogCacheInvalidator catalogCacheInvalidator;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private ProductFacetService productFacetService;
+
+    @Value("${reviews.stats.rebuild-enabled:true}")
+    private boolean enabled;
+
+    @Scheduled(cron = "${reviews.stats.rebuild-cron:0 30 3 * * *}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            ratingStatsRepository.rebuildFromReviews();
+            ratingStatsRepository.deleteWithoutReviews();
+            catalogCacheInvalidator.clearAll();
+            catalogVersion.bump();
+            // Repaired averages can move products between rating buckets
+            productFacetService.refreshAll();
+        } catch (Exception e) {
+            System.err.println("Warning: Rating stats rebuild failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.marketplace.Digital_Marketplace.services;
+
+import com.marketplace.Digital_Marketplace.events.ProductChangedEvent;
+import com.marketplace.Digital_Marketplace.models.Product;
+import com.marketplace.Digital_Marketplace.models.ProductRatingStats;
+import com.marketplace.Digital_Marketplace.models.Review;
+import com.marketplace.Digital_Marketplace.repositories.OrderItemRepository;
+import com.marketplace.Digital_Marketplace.repositories.ProductRatingStatsRepository;
+import com.marketplace.Digital_Marketplace.repositories.ProductRepository;
+import com.marketplace.Digital_Marketplace.repositories.ReviewRepository;
+import com.marketplace.Digital_Marketplace.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Review writes. Every insert, rating change and delete applies the matching
+ * delta to ProductRatingStats in the same transaction, so listings can show
+ * ratings without reading the reviews table.
+ */
+@Service
+public class ReviewService {
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ProductRatingStatsRepository ratingStatsRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Review an approved product the reviewer has paid for, once
+     */
+    @Transactional
+    public Review createReview(Long productId, Long reviewerId, int rating, String comment) {
+        validateRating(rating);
+        Product product = productRepository.findById(productId)
+                .filter(p -> Boolean.TRUE.equals(p.getApproved()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
+        if (orderItemRepository.findPurchases(reviewerId, productId, DownloadService.PAID_STATUSES).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Product not purchased");
+        }
+        if (reviewRepository.existsByProductIdAndReviewerId(productId, reviewerId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Product already reviewed");
+        }
+
+        Review review = new Review();
+        review.setProduct(product);
+        review.setReviewer(userRepository.getReferenceById(reviewerId));
+        review.setRating(rating);
+        review.setComment(comment);
+        review.setCreatedAt(LocalDateTime.now());
+        Review saved = reviewRepository.save(review);
+
+        long[] stars = new long[6];
+        stars[rating] = 1;
+        applyDelta(product, 1, rating, stars);
+        return saved;
+    }
+
+    /**
+     * Change the reviewer's own review; empty if it does not exist or belongs to someone else
+     */
+    @Transactional
+    public Optional<Review> updateReview(Long reviewId, Long reviewerId, int rating, String comment) {
+        validateRating(rating);
+        Optional<Review> found = findOwned(reviewId, reviewerId);
+        found.ifPresent(review -> {
+            int previous = review.getRating();
+            review.setRating(rating);
+            review.setComment(comment);
+            if (previous != rating) {
+                long[] stars = new long[6];
+                stars[previous] = -1;
+                stars[rating] = 1;
+                applyDelta(review.getProduct(), 0, rating - previous, stars);
+            }
+        });
+        return found;
+    }
+
+    /**
+     * Delete the reviewer's own review; false if it does not exist or belongs to someone else
+     */
+    @Transactional
+    public boolean deleteReview(Long reviewId, Long reviewerId) {
+        Optional<Review> found = findOwned(reviewId, reviewerId);
+        found.ifPresent(review -> {
+            Product product = review.getProduct();
+            int rating = review.getRating();
+            reviewRepository.delete(review);
+            long[] stars = new long[6];
+            stars[rating] = -1;
+            applyDelta(product, -1, -rating, stars);
+        });
+        return found.isPresent();
+    }
+
+    public Optional<ProductRatingStats> getRatingStats(Long productId) {
+        return ratingStatsRepository.findById(productId);
+    }
+
+    private Optional<Review> findOwned(Long reviewId, Long reviewerId) {
+        return reviewRepository.findById(reviewId)
+                .filter(review -> review.getReviewer().getId().equals(reviewerId));
+    }
+
+    // stars is indexed by star value (1..5)
+    private void applyDelta(Product product, long count, long sum, long[] stars) {
+        ratingStatsRepository.applyDelta(product.getId(), count, sum, stars[1], stars[2], stars[3], stars[4], stars[5]);
+        eventPublisher.publishEvent(new ProductChangedEvent(product.getId(), product.getSeller().getId(),
+                                                            ProductChangedEvent.Type.REVIEWED));
+    }
+
+    private static void validateRating(int rating) {
+        if (rating < 1 || rating > 5) {
+            throw new IllegalArgumentException("Rating must be between 1 and 5");
+        }
+    }
+}
@@ -1,18 +1,26 @@
 package com.marketplace.Digital_Marketplace.services;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
 public class StorageService {
 
+    // Only product files are deduplicated; previews and other folders keep one file per upload
+    public static final String PRODUCTS_FOLDER = "products";
+
     @Value("${storage.type:local}")
     private String storageType;
 
@@ -28,10 +36,22 @@ public class StorageService {
     @Value("${supabase.bucket:digital-marketplace}")
     private String supabaseBucket;
 
+    /**
+     * Store product files once per distinct content (SHA-256) instead of once per upload
+     */
+    @Value("${storage.dedup.enabled:false}")
+    private boolean dedupEnabled;
+
+    @Autowired
+    private BlobStorageService blobStorageService;
+
     /**
      * Upload a file and return the file path/URL
      */
     public String uploadFile(MultipartFile file, String folder) throws IOException {
+        if (isDeduplicated(folder)) {
+            return blobStorageService.store(file.getInputStream());
+        }
         if ("supabase".equalsIgnoreCase(storageType)) {
             return uploadToSupabase(file, folder);
         } else {
@@ -43,16 +63,13 @@ public class StorageService {
      * Upload to Supabase Storage via REST API
      */
     private String uploadToSupabase(MultipartFile file, String folder) throws IOException {
-        String fileName = generateFileName(file.getOriginalFilename());
-        String filePath = folder + "/" + fileName;
-
         try {
             // Return placeholder - In production, use Supabase REST API
             // For now, files are stored locally and served from uploads folder
             String localPath = uploadToLocal(file, folder);
             
             // Return a URL that represents where it would be in Supabase
-            return supabaseUrl + "/storage/v1/object/public/" + supabaseBucket + "/" + filePath;
+            return supabasePublicPrefix() + localPath;
         } catch (Exception e) {
             throw new IOException("Failed to upload file to Supabase: " + e.getMessage(), e);
         }
@@ -74,6 +91,75 @@ public class StorageService {
         return "/" + folder + "/" + fileName;
     }
 
+    /**
+     * Store a file that already exists on local disk (e.g. an assembled chunked upload).
+     * The source is moved rather than copied, so no second pass over the data is needed
+     * when it lives on the same volume as the storage folder.
+     */
+    public String storeFile(File file, String folder) throws IOException {
+        return storeFile(file.toPath(), file.getName(), folder);
+    }
+
+    /**
+     * Store a local file under the given original name and return the file path/URL
+     */
+    public String storeFile(Path source, String originalFileName, String folder) throws IOException {
+        if (isDeduplicated(folder)) {
+            return blobStorageService.store(source);
+        }
+
+        String fileName = generateFileName(originalFileName);
+        Path folderPath = Paths.get(localStoragePath, folder);
+        Files.createDirectories(folderPath);
+
+        Path filePath = folderPath.resolve(fileName);
+        try {
+            Files.move(source, filePath, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Different file system - fall back to a copying move
+            Files.move(source, filePath);
+        }
+
+        String localUrl = "/" + folder + "/" + fileName;
+        if ("supabase".equalsIgnoreCase(storageType)) {
+            return supabasePublicPrefix() + localUrl;
+        }
+        return localUrl;
+    }
+
+    /**
+     * Map a stored file URL to its copy on local disk, if there is one.
+     * Paths escaping the storage folder are rejected.
+     */
+    public Optional<Path> resolveLocalPath(String fileUrl) {
+        if (fileUrl == null || fileUrl.isBlank()) {
+            return Optional.empty();
+        }
+
+        String relative = fileUrl;
+        String supabasePrefix = supabasePublicPrefix();
+        if (relative.startsWith(supabasePrefix)) {
+            relative = relative.substring(supabasePrefix.length());
+        } else if (relative.contains("://")) {
+            return Optional.empty();
+        }
+
+        Path root = Paths.get(localStoragePath).toAbsolutePath().normalize();
+        Path path = root.resolve(relative.replaceFirst("^/+", "")).normalize();
+        if (!path.startsWith(root)) {
+            return Optional.empty();
+        }
+        return Optional.of(path);
+    }
+
+    private boolean isDeduplicated(String folder) {
+        return dedupEnabled && PRODUCTS_FOLDER.equals(folder);
+    }
+
+    private String supabasePublicPrefix() {
+        return supabaseUrl + "/storage/v1/object/public/" + supabaseBucket;
+    }
+
     /**
      * Generate unique filename to avoid conflicts
      */
@@ -85,10 +171,50 @@ public class StorageService {
         return UUID.randomUUID().toString() + extension;
     }
 
+    /**
+     * URL of identical content that is already stored. No reference is taken; callers
+     * must check the requester may use the URL and retain it when a product row refers to it.
+     */
+    public Optional<String> findExisting(String sha256) {
+        if (!dedupEnabled || sha256 == null || sha256.isBlank()) {
+            return Optional.empty();
+        }
+        return blobStorageService.find(sha256);
+    }
+
+    /**
+     * Record one more product referring to an already stored file (see releaseFile).
+     * Returns false if the URL names a content-addressed blob that does not exist.
+     */
+    public boolean retainFile(String fileUrl) {
+        if (blobStorageService.isBlobUrl(fileUrl)) {
+            return blobStorageService.retain(fileUrl);
+        }
+        return true;
+    }
+
+    public boolean isBlobUrl(String fileUrl) {
+        return blobStorageService.isBlobUrl(fileUrl);
+    }
+
+    /**
+     * Release a file that is no longer referenced. Content-addressed blobs are
+     * reference-counted; other files are left in place.
+     */
+    public void releaseFile(String fileUrl) throws IOException {
+        if (blobStorageService.isBlobUrl(fileUrl)) {
+            blobStorageService.release(fileUrl);
+        }
+    }
+
     /**
      * Delete a file
      */
     public void deleteFile(String filePath) throws IOException {
+        if (blobStorageService.isBlobUrl(filePath)) {
+            blobStorageService.release(filePath);
+            return;
+        }
         if ("supabase".equalsIgnoreCase(storageType)) {
             deleteFromSupabase(filePath);
         } else {
@@ -0,0 +1,34 @@
+package com.marketplace.Digital_Marketplace.services;
+
+import com.marketplace.Digital_Marketplace.events.ProductFilesReleasedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+
+/**
+ * Drops deleted products' references to deduplicated blobs after the delete commits,
+ * so a rolled-back delete never leaves a product pointing at a removed blob
+ */
+@Component
+public class StoredFileReleaser {
+
+    @Autowired
+    private StorageService storageService;
+
+    // The deleting transaction has already committed, so the refcount updates need their own
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onFilesReleased(ProductFilesReleasedEvent event) {
+        for (String fileUrl : event.getFileUrls()) {
+            try {
+                storageService.releaseFile(fileUrl);
+            } catch (IOException e) {
+                System.err.println("Warning: Failed to release file " + fileUrl + ": " + e.getMessage());
+            }
+        }
+    }
+}
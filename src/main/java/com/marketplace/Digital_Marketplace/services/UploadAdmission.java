@@ -0,0 +1,143 @@
+package com.marketplace.Digital_Marketplace.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control for upload bytes. A writer reserves the bytes it is about to
+ * write against a global and a per-seller budget and checks that temp/uploads
+ * keeps a free-disk watermark; over budget it is refused up front with a retry
+ * hint rather than failing mid-write. A request is always admitted when nothing
+ * else is reserved, so a single large file cannot be starved by the budget.
+ */
+@Service
+public class UploadAdmission {
+
+    // Same directory ChunkedUploadService writes to
+    private static final Path TEMP_DIR = Paths.get("temp/uploads/");
+
+    @Value("${upload.admission.global-max-bytes:512MB}")
+    private DataSize globalMaxBytes;
+
+    @Value("${upload.admission.seller-max-bytes:128MB}")
+    private DataSize sellerMaxBytes;
+
+    @Value("${upload.admission.min-free-disk:1GB}")
+    private DataSize minFreeDisk;
+
+    @Value("${upload.admission.retry-after-seconds:2}")
+    private long retryAfterSeconds;
+
+    @Value("${upload.admission.disk-retry-after-seconds:30}")
+    private long diskRetryAfterSeconds;
+
+    private final AtomicLong globalReserved = new AtomicLong();
+    private final ConcurrentHashMap<Long, Long> sellerReserved = new ConcurrentHashMap<>();
+
+    /**
+     * Bytes reserved by one writer. Closing it releases them; closing twice is harmless.
+     */
+    public final class Reservation implements AutoCloseable {
+        private final Long sellerId;
+        private final long bytes;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Reservation(Long sellerId, long bytes) {
+            this.sellerId = sellerId;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release(sellerId, bytes);
+            }
+        }
+    }
+
+    /**
+     * Reserve bytes about to be written to temp storage
+     * @throws UploadCapacityException if a budget or the disk watermark would be exceeded
+     */
+    public Reservation reserve(Long sellerId, long bytes) {
+        long size = Math.max(0, bytes);
+        checkDisk(size);
+        reserveGlobal(size);
+        try {
+            reserveSeller(sellerId, size);
+        } catch (UploadCapacityException e) {
+            globalReserved.addAndGet(-size);
+            throw e;
+        }
+        return new Reservation(sellerId, size);
+    }
+
+    /**
+     * Refuse a new upload whose full size would take temp disk below the watermark
+     */
+    public void checkDisk(long bytes) {
+        long usable;
+        try {
+            Files.createDirectories(TEMP_DIR);
+            usable = Files.getFileStore(TEMP_DIR).getUsableSpace();
+        } catch (IOException e) {
+            System.err.println("Could not read free space of " + TEMP_DIR + ": " + e.getMessage());
+            return;
+        }
+        if (usable - bytes < minFreeDisk.toBytes()) {
+            throw new UploadCapacityException("Upload storage is nearly full, please try again later",
+                    diskRetryAfterSeconds);
+        }
+    }
+
+    private void reserveGlobal(long bytes) {
+        long max = globalMaxBytes.toBytes();
+        while (true) {
+            long current = globalReserved.get();
+            if (current > 0 && current + bytes > max) {
+                throw new UploadCapacityException("Too many uploads in progress, please retry shortly",
+                        retryAfterSeconds);
+            }
+            if (globalReserved.compareAndSet(current, current + bytes)) {
+                return;
+            }
+        }
+    }
+
+    private void reserveSeller(Long sellerId, long bytes) {
+        if (sellerId == null) {
+            return;
+        }
+        long max = sellerMaxBytes.toBytes();
+        boolean[] granted = {false};
+        sellerReserved.compute(sellerId, (id, current) -> {
+            long used = current == null ? 0 : current;
+            if (used > 0 && used + bytes > max) {
+                return current;
+            }
+            granted[0] = true;
+            return used + bytes;
+        });
+        if (!granted[0]) {
+            throw new UploadCapacityException("You have too many uploads in progress, please retry shortly",
+                    retryAfterSeconds);
+        }
+    }
+
+    private void release(Long sellerId, long bytes) {
+        globalReserved.addAndGet(-bytes);
+        if (sellerId != null) {
+            // Entries are removed at zero so the map only holds sellers with uploads in flight
+            sellerReserved.computeIfPresent(sellerId, (id, used) -> used - bytes <= 0 ? null : used - bytes);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.marketplace.Digital_Marketplace.services;
+
+import lombok.Getter;
+
+/**
+ * An upload was turned away before any bytes were written because the in-flight
+ * byte budget or free temp disk is exhausted. Clients should retry after retryAfterSeconds.
+ */
+@Getter
+public class UploadCapacityException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public UploadCapacityException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,153 @@
+package com.marketplace.Digital_Marketplace.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs upload assembly and storage off the request thread and tracks job status
+ */
+@Service
+public class UploadFinalizationService {
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    @Qualifier("uploadFinalizationExecutor")
+    private TaskExecutor executor;
+
+    @Value("${upload.finalize.job-retention-ms:3600000}")
+    private long jobRetentionMs;
+
+    private final ConcurrentHashMap<String, UploadJob> jobs = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, UploadJob> jobsByUpload = new ConcurrentHashMap<>();
+
+    /**
+     * Queue one of the seller's uploads for finalization. Completing the same upload twice
+     * returns the existing job. The session's ACTIVE -> FINALIZING transition is the claim,
+     * so a concurrent cancel either wins outright or sees the upload as finalizing.
+     *
+     * @throws IOException if the upload is unknown, not the seller's, still missing chunks or cancelled
+     * @throws TaskRejectedException if the finalization queue is full
+     */
+    public UploadJob submit(String uploadId, String folder, Long sellerId) throws IOException {
+        UploadJob current = jobsByUpload.get(uploadId);
+        if (current != null && current.getSellerId().equals(sellerId)) {
+            return current;
+        }
+
+        UploadSession session = chunkedUploadService.getOwnedSession(uploadId, sellerId)
+                .orElseThrow(() -> new IOException("No chunks found for upload: " + uploadId));
+        if (!session.isComplete()) {
+            throw new IOException("Upload " + uploadId + " is missing chunks: "
+                    + session.getReceivedChunks() + " of " + session.getTotalChunks() + " received");
+        }
+        if (!session.tryBeginFinalize()) {
+            UploadJob raced = jobsByUpload.get(uploadId);
+            if (raced != null) {
+                return raced;
+            }
+            throw new IOException("Upload " + uploadId + " is already being finalized or was cancelled");
+        }
+
+        UploadJob job = new UploadJob(UUID.randomUUID().toString(), session, folder);
+        jobsByUpload.put(uploadId, job);
+        jobs.put(job.getJobId(), job);
+
+        try {
+            executor.execute(() -> run(job, session));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getJobId());
+            jobsByUpload.remove(uploadId, job);
+            session.finalizeFailed();
+            throw e;
+        }
+        return job;
+    }
+
+    /**
+     * True while a finalization job for the upload is queued or running
+     */
+    public boolean isFinalizing(String uploadId) {
+        UploadJob job = jobsByUpload.get(uploadId);
+        return job != null && !job.isFinished();
+    }
+
+    /**
+     * The job if it was submitted by the given seller; other sellers' jobs are reported as absent
+     */
+    public Optional<UploadJob> getJob(String jobId, Long sellerId) {
+        return Optional.ofNullable(jobs.get(jobId))
+                .filter(job -> job.getSellerId().equals(sellerId));
+    }
+
+    /**
+     * Hand a succeeded job's stored file over to the seller's new product, at most once.
+     * The reference taken when the file was stored passes to the product row.
+     */
+    public Optional<UploadJob> claimResult(String jobId, Long sellerId) {
+        UploadJob job = jobs.get(jobId);
+        if (job == null || !job.getSellerId().equals(sellerId)
+                || job.getState() != UploadJob.State.SUCCEEDED || !jobs.remove(jobId, job)) {
+            return Optional.empty();
+        }
+        jobsByUpload.remove(job.getUploadId(), job);
+        return Optional.of(job);
+    }
+
+    private void run(UploadJob job, UploadSession session) {
+        job.markRunning();
+        try {
+            String fileUrl = chunkedUploadService.assembleAndStoreFile(job.getUploadId(), job.getFolder());
+            job.markSucceeded(fileUrl);
+        } catch (Exception e) {
+            System.err.println("Upload finalization failed for " + job.getUploadId() + ": " + e.getMessage());
+            job.markFailed(e.getMessage());
+            // Allow the client to retry completion of the same upload, or cancel it
+            jobsByUpload.remove(job.getUploadId(), job);
+            session.finalizeFailed();
+        }
+    }
+
+    /**
+     * Forget finished jobs past their retention, releasing the files no product claimed.
+     * Scheduled rather than piggybacked on submit, so it runs even when no uploads arrive.
+     */
+    @Scheduled(fixedDelayString = "${upload.finalize.prune-interval-ms:300000}",
+               initialDelayString = "${upload.finalize.prune-interval-ms:300000}")
+    public void pruneFinishedJobs() {
+        long cutoff = System.currentTimeMillis() - jobRetentionMs;
+        for (UploadJob job : jobs.values()) {
+            // remove(key, value) decides the race with claimResult, so a claimed file is never released
+            if (job.isFinished() && job.getFinishedAt() < cutoff && jobs.remove(job.getJobId(), job)) {
+                jobsByUpload.remove(job.getUploadId(), job);
+                if (job.getState() == UploadJob.State.SUCCEEDED) {
+                    releaseUnclaimed(job);
+                }
+            }
+        }
+    }
+
+    // A stored file no product ever claimed would otherwise keep its blob reference forever
+    private void releaseUnclaimed(UploadJob job) {
+        try {
+            storageService.releaseFile(job.getFileUrl());
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to release unclaimed upload " + job.getFileUrl()
+                    + ": " + e.getMessage());
+        }
+    }
+}
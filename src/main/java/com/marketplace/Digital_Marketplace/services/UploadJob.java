@@ -0,0 +1,54 @@
+package com.marketplace.Digital_Marketplace.services;
+
+import lombok.Getter;
+
+/**
+ * Status of an asynchronous upload finalization (assembly + storage)
+ */
+@Getter
+public class UploadJob {
+
+    public enum State { PENDING, RUNNING, SUCCEEDED, FAILED }
+
+    private final String jobId;
+    private final String uploadId;
+    private final Long sellerId;
+    private final String folder;
+    private final String fileName;
+    private final long fileSize;
+    private final long createdAt = System.currentTimeMillis();
+
+    private volatile State state = State.PENDING;
+    private volatile String fileUrl;
+    private volatile String error;
+    private volatile long finishedAt;
+
+    public UploadJob(String jobId, UploadSession session, String folder) {
+        this.jobId = jobId;
+        this.uploadId = session.getUploadId();
+        this.sellerId = session.getSellerId();
+        this.folder = folder;
+        this.fileName = session.getFileName();
+        this.fileSize = session.getTotalFileSize();
+    }
+
+    public boolean isFinished() {
+        return state == State.SUCCEEDED || state == State.FAILED;
+    }
+
+    void markRunning() {
+        state = State.RUNNING;
+    }
+
+    void markSucceeded(String fileUrl) {
+        this.fileUrl = fileUrl;
+        this.finishedAt = System.currentTimeMillis();
+        this.state = State.SUCCEEDED;
+    }
+
+    void markFailed(String error) {
+        this.error = error;
+        this.finishedAt = System.currentTimeMillis();
+        this.state = State.FAILED;
+    }
+}
@@ -0,0 +1,184 @@
+package com.marketplace.Digital_Marketplace.services;
+
+import com.marketplace.Digital_Marketplace.repositories.UploadChunkRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Periodically removes abandoned chunked uploads: chunk log rows, temp files and
+ * in-memory sessions that have seen no activity within the configured TTL.
+ */
+@Component
+public class UploadReaper {
+
+    private static final int UPLOAD_ID_LENGTH = 36;
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @Autowired
+    private UploadFinalizationService uploadFinalizationService;
+
+    @Autowired
+    private UploadSessionRegistry sessionRegistry;
+
+    @Autowired
+    private UploadChunkRepository uploadChunkRepository;
+
+    @Value("${upload.reaper.ttl-ms:86400000}")
+    private long ttlMs;
+
+    @Value("${upload.reaper.batch-size:100}")
+    private int batchSize;
+
+    @Value("${upload.reaper.max-batches:10}")
+    private int maxBatches;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter uploadsReaped;
+    private Counter filesReaped;
+    private Counter bytesReclaimed;
+
+    @PostConstruct
+    public void registerMetrics() {
+        uploadsReaped = Counter.builder("upload.reaper.uploads")
+                .description("Abandoned uploads removed")
+                .register(meterRegistry);
+        filesReaped = Counter.builder("upload.reaper.orphan.files")
+                .description("Orphaned temp files removed")
+                .register(meterRegistry);
+        bytesReclaimed = Counter.builder("upload.reaper.bytes")
+                .description("Temp disk space reclaimed")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("upload.sessions.active", sessionRegistry, UploadSessionRegistry::size)
+                .description("Chunked uploads currently tracked in memory")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${upload.reaper.interval-ms:300000}",
+               initialDelayString = "${upload.reaper.initial-delay-ms:60000}")
+    public void reap() {
+        long cutoffMillis = System.currentTimeMillis() - ttlMs;
+
+        reapLoggedUploads(cutoffMillis);
+        reapIdleSessions(cutoffMillis);
+        reapOrphanFiles(cutoffMillis);
+    }
+
+    /**
+     * Uploads whose newest chunk row is older than the TTL, in bounded batches
+     */
+    private void reapLoggedUploads(long cutoffMillis) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(ttlMs));
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<String> uploadIds = uploadChunkRepository.findUploadIdsIdleSince(cutoff, PageRequest.of(0, batchSize));
+            int reaped = 0;
+            for (String uploadId : uploadIds) {
+                if (isActive(uploadId, cutoffMillis)) {
+                    continue;
+                }
+                reclaim(uploadId);
+                reaped++;
+            }
+            // Skipped (still active) uploads stay in the result, so stop once a batch makes no progress
+            if (uploadIds.size() < batchSize || reaped == 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Sessions that were initialized but never received a logged chunk
+     */
+    private void reapIdleSessions(long cutoffMillis) {
+        List<String> idle = new ArrayList<>();
+        for (UploadSession session : sessionRegistry.getSessions()) {
+            if (session.getLastActivityAt() < cutoffMillis
+                    && !uploadFinalizationService.isFinalizing(session.getUploadId())) {
+                idle.add(session.getUploadId());
+            }
+        }
+        for (String uploadId : idle) {
+            reclaim(uploadId);
+        }
+    }
+
+    /**
+     * Temp files left behind by crashes or failed assemblies that no live upload owns
+     */
+    private void reapOrphanFiles(long cutoffMillis) {
+        Path tempDir = chunkedUploadService.getTempDir();
+        if (!Files.isDirectory(tempDir)) {
+            return;
+        }
+
+        int budget = batchSize * maxBatches;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(tempDir)) {
+            for (Path file : files) {
+                if (budget-- <= 0) {
+                    break;
+                }
+                String name = file.getFileName().toString();
+                if (name.length() < UPLOAD_ID_LENGTH
+                        || Files.getLastModifiedTime(file).toMillis() >= cutoffMillis
+                        || isActive(name.substring(0, UPLOAD_ID_LENGTH), cutoffMillis)) {
+                    continue;
+                }
+                long size = chunkedUploadService.deleteTempFile(file);
+                filesReaped.increment();
+                bytesReclaimed.increment(size);
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to sweep " + tempDir + ": " + e.getMessage());
+        }
+    }
+
+    private boolean isActive(String uploadId, long cutoffMillis) {
+        if (uploadFinalizationService.isFinalizing(uploadId)) {
+            return true;
+        }
+        return sessionRegistry.find(uploadId)
+                .map(session -> session.getLastActivityAt() >= cutoffMillis)
+                .orElse(false);
+    }
+
+    private void reclaim(String uploadId) {
+        // Same claim as a user cancel, so an upload that starts finalizing meanwhile is left alone
+        boolean claimed = sessionRegistry.find(uploadId)
+                .map(UploadSession::tryCancel)
+                .orElse(true);
+        if (!claimed) {
+            return;
+        }
+        long size = chunkedUploadService.cleanupUpload(uploadId);
+        uploadsReaped.increment();
+        bytesReclaimed.increment(size);
+    }
+
+    public double getUploadsReaped() {
+        return uploadsReaped.count();
+    }
+
+    public double getBytesReclaimed() {
+        return bytesReclaimed.count();
+    }
+}
@@ -0,0 +1,184 @@
+package com.marketplace.Digital_Marketplace.services;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory state of one chunked upload. Received chunks are tracked in a
+ * lock-free bitmap so duplicate checks, progress and completion never hit the database.
+ * Finalizing and cancelling are single CAS transitions out of ACTIVE, so only one of them can win.
+ */
+@Getter
+public class UploadSession {
+
+    public enum State { ACTIVE, FINALIZING, CANCELLED }
+
+    private final String uploadId;
+    private final Long sellerId;
+    private final String fileName;
+    private final String contentType;
+    private final long totalFileSize;
+    private final int totalChunks;
+    private final int chunkSize;
+    private final long createdAt = System.currentTimeMillis();
+
+    @Getter(AccessLevel.NONE)
+    private final AtomicLongArray receivedBits;
+    @Getter(AccessLevel.NONE)
+    private final AtomicLongArray claimedBits;
+    private final AtomicInteger receivedChunks = new AtomicInteger();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private volatile long lastActivityAt = createdAt;
+    @Getter(AccessLevel.NONE)
+    private final AtomicReference<State> state = new AtomicReference<>(State.ACTIVE);
+
+    public UploadSession(String uploadId, Long sellerId, String fileName, String contentType,
+                         long totalFileSize, int totalChunks, int chunkSize) {
+        this.uploadId = uploadId;
+        this.sellerId = sellerId;
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.totalFileSize = totalFileSize;
+        this.totalChunks = totalChunks;
+        this.chunkSize = chunkSize;
+        this.receivedBits = new AtomicLongArray((totalChunks + 63) / 64);
+        this.claimedBits = new AtomicLongArray((totalChunks + 63) / 64);
+    }
+
+    /**
+     * Uploads logged before the owner was recorded belong to nobody
+     */
+    public boolean isOwnedBy(Long userId) {
+        return sellerId != null && sellerId.equals(userId);
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public boolean isActive() {
+        return state.get() == State.ACTIVE;
+    }
+
+    /**
+     * Claim the upload for assembly; false if it is already being finalized or was cancelled
+     */
+    public boolean tryBeginFinalize() {
+        return state.compareAndSet(State.ACTIVE, State.FINALIZING);
+    }
+
+    /**
+     * Return to ACTIVE after a failed assembly so the client can retry or cancel
+     */
+    public void finalizeFailed() {
+        state.compareAndSet(State.FINALIZING, State.ACTIVE);
+    }
+
+    /**
+     * Claim the upload for cancellation; false if it is being finalized or already cancelled
+     */
+    public boolean tryCancel() {
+        return state.compareAndSet(State.ACTIVE, State.CANCELLED);
+    }
+
+    public boolean isValidChunk(int chunkNumber) {
+        return chunkNumber >= 0 && chunkNumber < totalChunks;
+    }
+
+    public boolean isReceived(int chunkNumber) {
+        if (!isValidChunk(chunkNumber)) {
+            return false;
+        }
+        return (receivedBits.get(chunkNumber >>> 6) & (1L << chunkNumber)) != 0;
+    }
+
+    /**
+     * Claim a chunk for writing so concurrent requests for the same chunk
+     * cannot both write it. Returns false if it is already received or being written.
+     */
+    public boolean tryClaim(int chunkNumber) {
+        if (!isValidChunk(chunkNumber) || isReceived(chunkNumber)) {
+            return false;
+        }
+        return setBit(claimedBits, chunkNumber);
+    }
+
+    /**
+     * Give up a claim after a failed write so the chunk can be retried
+     */
+    public void releaseClaim(int chunkNumber) {
+        if (isValidChunk(chunkNumber)) {
+            clearBit(claimedBits, chunkNumber);
+        }
+    }
+
+    /**
+     * Record a received chunk. Returns false if it had already been recorded.
+     */
+    public boolean markReceived(int chunkNumber, long size) {
+        if (!isValidChunk(chunkNumber)) {
+            throw new IllegalArgumentException("Chunk " + chunkNumber + " out of range for upload " + uploadId);
+        }
+        boolean added = setBit(receivedBits, chunkNumber);
+        if (added) {
+            receivedChunks.incrementAndGet();
+            bytesReceived.addAndGet(size);
+            touch();
+        }
+        clearBit(claimedBits, chunkNumber);
+        return added;
+    }
+
+    private static boolean setBit(AtomicLongArray bits, int index) {
+        int word = index >>> 6;
+        long mask = 1L << index;
+        while (true) {
+            long current = bits.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+            if (bits.compareAndSet(word, current, current | mask)) {
+                return true;
+            }
+        }
+    }
+
+    private static void clearBit(AtomicLongArray bits, int index) {
+        int word = index >>> 6;
+        long mask = 1L << index;
+        while (true) {
+            long current = bits.get(word);
+            if ((current & mask) == 0 || bits.compareAndSet(word, current, current & ~mask)) {
+                return;
+            }
+        }
+    }
+
+    public boolean isComplete() {
+        return receivedChunks.get() >= totalChunks;
+    }
+
+    public int getProgress() {
+        if (totalChunks == 0) {
+            return 100;
+        }
+        return (int) ((receivedChunks.get() * 100.0) / totalChunks);
+    }
+
+    public int getReceivedChunks() {
+        return receivedChunks.get();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    public void touch() {
+        lastActivityAt = System.currentTimeMillis();
+    }
+}
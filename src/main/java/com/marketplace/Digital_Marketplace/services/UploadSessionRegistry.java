@@ -0,0 +1,58 @@
+package com.marketplace.Digital_Marketplace.services;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Registry of active chunked uploads keyed by uploadId
+ */
+@Component
+public class UploadSessionRegistry {
+
+    private final ConcurrentHashMap<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    public UploadSession register(UploadSession session) {
+        sessions.put(session.getUploadId(), session);
+        return session;
+    }
+
+    public Optional<UploadSession> find(String uploadId) {
+        return Optional.ofNullable(sessions.get(uploadId));
+    }
+
+    /**
+     * Return the session for an upload, loading it if this node has not seen it yet.
+     * The loader may return null when the upload is unknown. It runs outside the map
+     * (not in computeIfAbsent) so its database query holds no bin lock, which would pin
+     * a virtual thread and block other uploads in the same bin; if two requests load
+     * the same upload at once, the first one registered wins.
+     */
+    public Optional<UploadSession> findOrLoad(String uploadId, Function<String, UploadSession> loader) {
+        UploadSession session = sessions.get(uploadId);
+        if (session != null) {
+            return Optional.of(session);
+        }
+        UploadSession loaded = loader.apply(uploadId);
+        if (loaded == null) {
+            return Optional.empty();
+        }
+        UploadSession raced = sessions.putIfAbsent(uploadId, loaded);
+        return Optional.of(raced != null ? raced : loaded);
+    }
+
+    public void remove(String uploadId) {
+        sessions.remove(uploadId);
+    }
+
+    public Collection<UploadSession> getSessions() {
+        return sessions.values();
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+}
@@ -2,6 +2,7 @@ package com.marketplace.Digital_Marketplace.services;
 
 import com.marketplace.Digital_Marketplace.models.User;
 import com.marketplace.Digital_Marketplace.repositories.UserRepository;
+import com.marketplace.Digital_Marketplace.security.UserSnapshotCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.util.Optional;
@@ -13,6 +14,9 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private UserSnapshotCache userSnapshotCache;
+    
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
@@ -34,10 +38,17 @@ public class UserService {
     }
     
     public User updateUser(User user) {
-        return userRepository.save(user);
+        // Evict under the old login too, in case username or email changed
+        if (user.getId() != null) {
+            userRepository.findById(user.getId()).ifPresent(userSnapshotCache::evict);
+        }
+        User saved = userRepository.save(user);
+        userSnapshotCache.evict(saved);
+        return saved;
     }
     
     public void deleteUser(Long id) {
+        userRepository.findById(id).ifPresent(userSnapshotCache::evict);
         userRepository.deleteById(id);
     }
     
@@ -4,9 +4,18 @@
  */
 class ChunkedUploader {
     constructor(options = {}) {
-        this.chunkSize = options.chunkSize || 1024 * 1024; // 1MB default
+        this.chunkSize = options.chunkSize || 1024 * 1024; // fallback, the server's size from /init wins
         this.maxRetries = options.maxRetries || 3;
+        // Times a request may be deferred by a 429 (server busy or rate limited) before giving up
+        this.maxBusyRetries = options.maxBusyRetries || 30;
+        // Upper bound on parallel chunk requests; the server's maxConcurrentChunks also applies
+        this.concurrency = options.concurrency || 0;
+        this.pollInterval = options.pollInterval || 1000;
+        // Files up to this size are hashed client-side to detect duplicates
+        this.hashMaxBytes = options.hashMaxBytes || 128 * 1024 * 1024;
         this.uploadUrl = options.uploadUrl || '/api/upload';
+        // Send chunks as raw octet-stream bodies instead of multipart form data
+        this.rawChunks = options.rawChunks !== false;
         this.onProgress = options.onProgress || (() => {});
         this.onComplete = options.onComplete || (() => {});
         this.onError = options.onError || (() => {});
@@ -18,22 +27,61 @@ class ChunkedUploader {
     async uploadFile(file, folder = 'products') {
         try {
             // Initialize upload
-            const uploadId = await this.initializeUpload(file, folder);
+            const session = await this.initializeUpload(file, folder);
+
+            if (session.status === 'duplicate') {
+                // The server already stores identical content
+                const result = { status: 'success', fileUrl: session.fileUrl };
+                this.onProgress(100, 0, 0);
+                this.onComplete(result);
+                return result;
+            }
+
+            const uploadId = session.uploadId;
 
-            // Calculate chunks
-            const totalChunks = Math.ceil(file.size / this.chunkSize);
+            // Chunks are written at chunkNumber * chunkSize on the server, so its size wins
+            if (session.chunkSize) {
+                this.chunkSize = session.chunkSize;
+            }
 
-            // Upload chunks
-            for (let chunkNumber = 0; chunkNumber < totalChunks; chunkNumber++) {
-                const start = chunkNumber * this.chunkSize;
-                const end = Math.min(start + this.chunkSize, file.size);
-                const chunk = file.slice(start, end);
+            // The server decides how the file is split
+            const totalChunks = session.totalChunks || Math.ceil(file.size / this.chunkSize);
+
+            // Keep up to `concurrency` chunks in flight; the server accepts them in any order
+            const concurrency = Math.max(1, Math.min(
+                this.concurrency || Infinity,
+                session.maxConcurrentChunks || 1,
+                totalChunks));
+
+            let nextChunk = 0;
+            let completedChunks = 0;
+            let failed = null;
+
+            const worker = async () => {
+                while (!failed && nextChunk < totalChunks) {
+                    const chunkNumber = nextChunk++;
+                    const start = chunkNumber * this.chunkSize;
+                    const end = Math.min(start + this.chunkSize, file.size);
+                    const chunk = file.slice(start, end);
+
+                    try {
+                        await this.uploadChunk(uploadId, chunk, chunkNumber, totalChunks, file, folder);
+                    } catch (error) {
+                        failed = failed || error;
+                        return;
+                    }
+
+                    // Update progress
+                    completedChunks++;
+                    const progress = Math.round((completedChunks / totalChunks) * 100);
+                    this.onProgress(progress, completedChunks, totalChunks);
+                }
+            };
 
-                await this.uploadChunk(uploadId, chunk, chunkNumber, totalChunks, file, folder);
+            await Promise.all(Array.from({ length: concurrency }, worker));
 
-                // Update progress
-                const progress = Math.round(((chunkNumber + 1) / totalChunks) * 100);
-                this.onProgress(progress, chunkNumber + 1, totalChunks);
+            if (failed) {
+                throw failed;
             }
 
             // Complete upload
@@ -52,47 +100,59 @@ class ChunkedUploader {
      * Initialize the upload
      */
     async initializeUpload(file, folder) {
-        const response = await fetch(`${this.uploadUrl}/init`, {
+        const params = new URLSearchParams({
+            fileName: file.name,
+            fileSize: file.size,
+            contentType: file.type || 'application/octet-stream'
+        });
+
+        const sha256 = await this.computeHash(file);
+        if (sha256) {
+            params.append('sha256', sha256);
+        }
+
+        const response = await this.withBusyRetry(() => fetch(`${this.uploadUrl}/init`, {
             method: 'POST',
             headers: {
                 'Content-Type': 'application/x-www-form-urlencoded',
             },
-            body: new URLSearchParams({
-                fileName: file.name,
-                fileSize: file.size,
-                contentType: file.type || 'application/octet-stream',
-                totalChunks: Math.ceil(file.size / this.chunkSize)
-            })
-        });
+            body: params
+        }));
 
         if (!response.ok) {
             throw new Error(`Failed to initialize upload: ${response.statusText}`);
         }
 
-        const data = await response.json();
-        return data.uploadId;
+        return await response.json();
     }
 
     /**
-     * Upload a single chunk
+     * SHA-256 of the file so the server can skip identical re-uploads.
+     * Skipped for large files since the browser has to read them into memory to hash.
      */
-    async uploadChunk(uploadId, chunk, chunkNumber, totalChunks, file, folder) {
-        const formData = new FormData();
-        formData.append('uploadId', uploadId);
-        formData.append('chunkNumber', chunkNumber);
-        formData.append('totalChunks', totalChunks);
-        formData.append('fileName', file.name);
-        formData.append('contentType', file.type || 'application/octet-stream');
-        formData.append('totalFileSize', file.size);
-        formData.append('chunk', chunk);
+    async computeHash(file) {
+        if (!window.crypto || !window.crypto.subtle || file.size > this.hashMaxBytes) {
+            return null;
+        }
+        try {
+            const digest = await window.crypto.subtle.digest('SHA-256', await file.arrayBuffer());
+            return Array.from(new Uint8Array(digest))
+                .map(b => b.toString(16).padStart(2, '0'))
+                .join('');
+        } catch (error) {
+            return null;
+        }
+    }
 
+    /**
+     * Upload a single chunk, retrying only this chunk on failure
+     */
+    async uploadChunk(uploadId, chunk, chunkNumber, totalChunks, file, folder) {
         let retries = 0;
         while (retries < this.maxRetries) {
             try {
-                const response = await fetch(`${this.uploadUrl}/chunk`, {
-                    method: 'POST',
-                    body: formData
-                });
+                // Busy answers are waited out as instructed and do not count as failures
+                const response = await this.withBusyRetry(() => this.sendChunk(uploadId, chunk, chunkNumber));
 
                 if (!response.ok) {
                     throw new Error(`HTTP ${response.status}: ${response.statusText}`);
@@ -124,10 +184,54 @@ class ChunkedUploader {
     }
 
     /**
-     * Complete the upload
+     * Run a request, waiting for Retry-After and trying again while the server answers
+     * one of the busy statuses (429 by default), at most maxBusyRetries times
+     */
+    async withBusyRetry(send, busyStatuses = [429]) {
+        let response = await send();
+        let waits = 0;
+        while (busyStatuses.includes(response.status) && waits < this.maxBusyRetries) {
+            waits++;
+            const retryAfter = parseInt(response.headers.get('Retry-After') || '2', 10);
+            // Jitter so clients turned away together do not come back together
+            const delay = retryAfter * 1000 + Math.random() * 1000;
+            await new Promise(resolve => setTimeout(resolve, delay));
+            response = await send();
+        }
+        return response;
+    }
+
+    /**
+     * Send one chunk, either as a raw body or as multipart form data
+     */
+    sendChunk(uploadId, chunk, chunkNumber) {
+        if (this.rawChunks) {
+            return fetch(`${this.uploadUrl}/${encodeURIComponent(uploadId)}/chunks/${chunkNumber}`, {
+                method: 'PUT',
+                headers: {
+                    'Content-Type': 'application/octet-stream',
+                },
+                body: chunk
+            });
+        }
+
+        const formData = new FormData();
+        formData.append('uploadId', uploadId);
+        formData.append('chunkNumber', chunkNumber);
+        formData.append('chunk', chunk);
+
+        return fetch(`${this.uploadUrl}/chunk`, {
+            method: 'POST',
+            body: formData
+        });
+    }
+
+    /**
+     * Complete the upload. The server finalizes in the background, so poll the job until it finishes.
      */
     async completeUpload(uploadId, folder) {
-        const response = await fetch(`${this.uploadUrl}/complete`, {
+        // 503 means the finalization queue is full; back off as instructed, a bounded number of times
+        const response = await this.withBusyRetry(() => fetch(`${this.uploadUrl}/complete`, {
             method: 'POST',
             headers: {
                 'Content-Type': 'application/x-www-form-urlencoded',
@@ -136,13 +240,23 @@ class ChunkedUploader {
                 uploadId: uploadId,
                 folder: folder
             })
-        });
+        }), [429, 503]);
 
         if (!response.ok) {
             throw new Error(`Failed to complete upload: ${response.statusText}`);
         }
 
-        const data = await response.json();
+        let data = await response.json();
+
+        while (data.status === 'processing') {
+            await new Promise(resolve => setTimeout(resolve, this.pollInterval));
+
+            const jobResponse = await fetch(`${this.uploadUrl}/jobs/${encodeURIComponent(data.jobId)}`);
+            if (!jobResponse.ok) {
+                throw new Error(`Failed to get upload status: ${jobResponse.statusText}`);
+            }
+            data = await jobResponse.json();
+        }
 
         if (data.status !== 'success') {
             throw new Error(`Upload completion failed: ${data.message || 'Unknown error'}`);
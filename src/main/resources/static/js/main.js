@@ -48,6 +48,45 @@ document.addEventListener('DOMContentLoaded', function() {
         return emailRegex.test(email);
     }
 
+    // Search-as-you-type suggestions for search boxes
+    const searchInputs = document.querySelectorAll('.search-form input[type="search"]');
+    searchInputs.forEach((input, index) => {
+        const list = document.createElement('datalist');
+        list.id = 'search-suggestions-' + index;
+        input.setAttribute('list', list.id);
+        input.setAttribute('autocomplete', 'off');
+        input.after(list);
+
+        let timer = null;
+        let controller = null;
+        input.addEventListener('input', function() {
+            clearTimeout(timer);
+            const query = input.value.trim();
+            if (!query) {
+                list.innerHTML = '';
+                return;
+            }
+            timer = setTimeout(() => {
+                // Only the latest keystroke's request matters
+                if (controller) {
+                    controller.abort();
+                }
+                controller = new AbortController();
+                fetch('/api/suggest?q=' + encodeURIComponent(query), { signal: controller.signal })
+                    .then(response => response.ok ? response.json() : { suggestions: [] })
+                    .then(data => {
+                        list.innerHTML = '';
+                        data.suggestions.forEach(suggestion => {
+                            const option = document.createElement('option');
+                            option.value = suggestion.text;
+                            list.appendChild(option);
+                        });
+                    })
+                    .catch(() => {});
+            }, 120);
+        });
+    });
+
     // Active navigation link highlighting
     const currentLocation = location.pathname;
     const menuItems = document.querySelectorAll('.nav-links a');
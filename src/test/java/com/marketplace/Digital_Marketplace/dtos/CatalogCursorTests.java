@@ -0,0 +1,56 @@
+package com.marketplace.Digital_Marketplace.dtos;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogCursorTests {
+
+	@Test
+	void encodedCursorDecodesToTheSamePosition() {
+		LocalDateTime createdAt = LocalDateTime.of(2026, 3, 14, 15, 9, 26, 535_897_000);
+
+		CatalogCursor decoded = CatalogCursor.decode(new CatalogCursor(createdAt, 42L).encode());
+
+		assertEquals(createdAt, decoded.getCreatedAt());
+		assertEquals(42L, decoded.getId());
+	}
+
+	@Test
+	void wholeMinuteTimestampsRoundTrip() {
+		// LocalDateTime.toString drops zero seconds, which parse must still accept
+		LocalDateTime createdAt = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+		assertEquals(createdAt, CatalogCursor.decode(new CatalogCursor(createdAt, 1L).encode()).getCreatedAt());
+	}
+
+	@Test
+	void tokenIsUrlSafe() {
+		String token = new CatalogCursor(LocalDateTime.of(2026, 12, 31, 23, 59, 59), Long.MAX_VALUE).encode();
+
+		assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+	}
+
+	@Test
+	void rejectsTokensThatAreNotCursors() {
+		assertInvalid("");
+		assertInvalid("not a cursor!");
+		assertInvalid(encode("no separator"));
+		assertInvalid(encode("yesterday|5"));
+		assertInvalid(encode("2026-01-01T00:00|five"));
+	}
+
+	private static void assertInvalid(String token) {
+		assertThrows(IllegalArgumentException.class, () -> CatalogCursor.decode(token), token);
+	}
+
+	private static String encode(String raw) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+}
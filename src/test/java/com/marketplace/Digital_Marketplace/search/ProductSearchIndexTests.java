@@ -0,0 +1,86 @@
+package com.marketplace.Digital_Marketplace.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTests {
+
+	@Test
+	void equalScoresPageNewestIdFirst() {
+		ProductSearchIndex index = new ProductSearchIndex();
+		for (long id = 1; id <= 10; id++) {
+			index.index(id, "Notion template", "");
+		}
+
+		assertEquals(List.of(10L, 9L, 8L), index.search("notion", 0, 3).getProductIds());
+		assertEquals(List.of(7L, 6L, 5L), index.search("notion", 3, 3).getProductIds());
+		assertEquals(List.of(1L), index.search("notion", 9, 3).getProductIds());
+		assertEquals(10, index.search("notion", 9, 3).getTotalHits());
+	}
+
+	@Test
+	void windowPastTheLastHitIsEmptyWithTheRealTotal() {
+		ProductSearchIndex index = new ProductSearchIndex();
+		index.index(1L, "Budget spreadsheet", "");
+		index.index(2L, "Budget planner", "");
+
+		SearchHits hits = index.search("budget", 2, 10);
+
+		assertTrue(hits.getProductIds().isEmpty());
+		assertEquals(2, hits.getTotalHits());
+	}
+
+	@Test
+	void pagesConcatenateToTheFullRanking() {
+		ProductSearchIndex index = new ProductSearchIndex();
+		for (long id = 1; id <= 23; id++) {
+			// Varying term frequency and document length gives varied scores
+			index.index(id, id % 3 == 0 ? "Icon pack icons" : "Icon set", "x".repeat((int) id % 5 + 1) + " icon");
+		}
+		List<Long> full = index.search("icon", 0, 100).getProductIds();
+		assertEquals(23, full.size());
+
+		List<Long> paged = new ArrayList<>();
+		for (int offset = 0; offset < 23; offset += 4) {
+			paged.addAll(index.search("icon", offset, 4).getProductIds());
+		}
+		assertEquals(full, paged);
+	}
+
+	@Test
+	void nameMatchesOutrankDescriptionMatches() {
+		ProductSearchIndex index = new ProductSearchIndex();
+		index.index(1L, "Wedding invitation", "Printable card with a watercolor border");
+		index.index(2L, "Watercolor brushes", "Procreate brush set");
+
+		assertEquals(List.of(2L, 1L), index.search("watercolor", 0, 10).getProductIds());
+	}
+
+	@Test
+	void removedAndReindexedProductsLeaveNoStalePostings() {
+		ProductSearchIndex index = new ProductSearchIndex();
+		index.index(1L, "Resume template", "");
+		index.index(2L, "Resume guide", "");
+
+		index.remove(1L);
+		index.index(2L, "Cover letter guide", "");
+
+		assertEquals(0, index.search("resume", 0, 10).getTotalHits());
+		assertEquals(List.of(2L), index.search("letter", 0, 10).getProductIds());
+		assertEquals(1, index.size());
+	}
+
+	@Test
+	void queriesWithoutSearchableTermsMatchNothing() {
+		ProductSearchIndex index = new ProductSearchIndex();
+		index.index(1L, "The template", "");
+
+		assertEquals(0, index.search("the of and", 0, 10).getTotalHits());
+		assertEquals(0, index.search("   ", 0, 10).getTotalHits());
+	}
+}
@@ -0,0 +1,116 @@
+package com.marketplace.Digital_Marketplace.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SuggestionTrieTests {
+
+	@Test
+	void rankedByWeightThenText() {
+		SuggestionTrie trie = new SuggestionTrie(10, 12);
+		trie.add("notion planner", product(1, "notion planner", 5));
+		trie.add("notion budget", product(2, "notion budget", 9));
+		trie.add("notion habits", product(3, "notion habits", 5));
+
+		assertEquals(List.of(2L, 3L, 1L), ids(trie.lookup("notion", 10)));
+		assertEquals(List.of(2L), ids(trie.lookup("notion", 1)));
+	}
+
+	@Test
+	void keyLeavingAnEdgeSplitsIt() {
+		SuggestionTrie trie = new SuggestionTrie(10, 12);
+		trie.add("notion", product(1, "notion", 1));
+		trie.add("notes", product(2, "notes", 2));
+		trie.add("no", product(3, "no", 3));
+
+		assertEquals(List.of(3L, 2L, 1L), ids(trie.lookup("n", 10)));
+		assertEquals(List.of(2L, 1L), ids(trie.lookup("not", 10)));
+		assertEquals(List.of(1L), ids(trie.lookup("noti", 10)));
+		assertEquals(List.of(2L), ids(trie.lookup("note", 10)));
+		assertTrue(trie.lookup("nox", 10).isEmpty());
+		assertTrue(trie.lookup("notions", 10).isEmpty());
+	}
+
+	@Test
+	void removalRefillsTopKFromTheSubtree() {
+		SuggestionTrie trie = new SuggestionTrie(2, 12);
+		Suggestion best = product(1, "art prints", 30);
+		trie.add("art prints", best);
+		trie.add("art brushes", product(2, "art brushes", 20));
+		trie.add("artboard", product(3, "artboard", 10));
+		assertEquals(List.of(1L, 2L), ids(trie.lookup("art", 10)));
+
+		trie.remove("art prints", best);
+
+		assertEquals(List.of(2L, 3L), ids(trie.lookup("art", 10)));
+		assertEquals(List.of(2L, 3L), ids(trie.lookup("a", 10)));
+	}
+
+	@Test
+	void removalFoldsPassThroughNodes() {
+		SuggestionTrie trie = new SuggestionTrie(10, 12);
+		Suggestion notes = product(2, "notes", 2);
+		trie.add("notion", product(1, "notion", 1));
+		trie.add("notes", notes);
+
+		trie.remove("notes", notes);
+
+		assertEquals(List.of(1L), ids(trie.lookup("no", 10)));
+		assertEquals(List.of(1L), ids(trie.lookup("notion", 10)));
+		assertTrue(trie.lookup("note", 10).isEmpty());
+	}
+
+	@Test
+	void prefixesPastTheCachedLengthAreRankedOnDemand() {
+		SuggestionTrie trie = new SuggestionTrie(2, 2);
+		Suggestion first = product(1, "wedding invitation", 3);
+		trie.add("wedding invitation", first);
+		trie.add("wedding invoice", product(2, "wedding invoice", 2));
+		trie.add("wedding inventory", product(3, "wedding inventory", 1));
+
+		assertEquals(List.of(1L, 2L), ids(trie.lookup("wedding inv", 10)));
+
+		trie.remove("wedding invitation", first);
+
+		assertEquals(List.of(2L, 3L), ids(trie.lookup("wedding inv", 10)));
+		assertEquals(List.of(2L, 3L), ids(trie.lookup("we", 10)));
+	}
+
+	@Test
+	void replaceMovesASuggestionToItsNewKeys() {
+		SuggestionTrie trie = new SuggestionTrie(10, 12);
+		Suggestion before = product(1, "logo kit", 1);
+		trie.add("logo kit", before);
+
+		Suggestion after = product(1, "brand kit", 4);
+		trie.replace(List.of("logo kit"), before, List.of("brand kit", "kit"), after);
+
+		assertTrue(trie.lookup("logo", 10).isEmpty());
+		assertEquals(List.of(1L), ids(trie.lookup("brand", 10)));
+		assertEquals(4, trie.lookup("kit", 10).get(0).getWeight());
+	}
+
+	@Test
+	void reAddingUpdatesTheWeightInPlace() {
+		SuggestionTrie trie = new SuggestionTrie(10, 12);
+		trie.add("font", product(1, "font", 1));
+		trie.add("fonts", product(2, "fonts", 2));
+
+		trie.add("font", product(1, "font", 5));
+
+		assertEquals(List.of(1L, 2L), ids(trie.lookup("fo", 10)));
+		assertEquals(1, trie.lookup("font", 10).stream().filter(s -> s.getId() == 1L).count());
+	}
+
+	private static Suggestion product(long id, String text, long weight) {
+		return new Suggestion(Suggestion.Type.PRODUCT, id, text, weight);
+	}
+
+	private static List<Long> ids(List<Suggestion> suggestions) {
+		return suggestions.stream().map(Suggestion::getId).toList();
+	}
+}
@@ -0,0 +1,99 @@
+package com.marketplace.Digital_Marketplace.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTests {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+	// Arbitrary clock origin; System.nanoTime() may be negative, so nothing may assume otherwise
+	private static final long NOW = -5 * SECOND;
+
+	@Test
+	void fullBucketAllowsABurstOfCapacity() {
+		TokenBucket bucket = new TokenBucket(3, 60);
+
+		assertEquals(0, bucket.tryAcquire(NOW));
+		assertEquals(0, bucket.tryAcquire(NOW));
+		assertEquals(0, bucket.tryAcquire(NOW));
+		assertEquals(SECOND, bucket.tryAcquire(NOW));
+	}
+
+	@Test
+	void refusedRequestsDoNotConsumeTokens() {
+		TokenBucket bucket = new TokenBucket(1, 60);
+
+		assertEquals(0, bucket.tryAcquire(NOW));
+		assertEquals(SECOND, bucket.tryAcquire(NOW));
+		assertEquals(SECOND, bucket.tryAcquire(NOW));
+		assertEquals(0, bucket.tryAcquire(NOW + SECOND));
+	}
+
+	@Test
+	void tokensRefillAtTheSustainedRate() {
+		TokenBucket bucket = new TokenBucket(2, 60);
+		bucket.tryAcquire(NOW);
+		bucket.tryAcquire(NOW);
+
+		assertEquals(SECOND / 2, bucket.tryAcquire(NOW + SECOND / 2));
+		assertEquals(0, bucket.tryAcquire(NOW + SECOND));
+		assertEquals(SECOND, bucket.tryAcquire(NOW + SECOND));
+		assertEquals(0, bucket.tryAcquire(NOW + 2 * SECOND));
+	}
+
+	@Test
+	void idleTimeNeverBanksMoreThanCapacity() {
+		TokenBucket bucket = new TokenBucket(2, 60);
+		bucket.tryAcquire(NOW);
+
+		long later = NOW + 60 * SECOND;
+		assertEquals(0, bucket.tryAcquire(later));
+		assertEquals(0, bucket.tryAcquire(later));
+		assertEquals(SECOND, bucket.tryAcquire(later));
+	}
+
+	@Test
+	void refundGivesBackOneToken() {
+		TokenBucket bucket = new TokenBucket(2, 60);
+		bucket.tryAcquire(NOW);
+		bucket.tryAcquire(NOW);
+		assertTrue(bucket.tryAcquire(NOW) > 0);
+
+		bucket.refund();
+
+		assertEquals(0, bucket.tryAcquire(NOW));
+		assertEquals(SECOND, bucket.tryAcquire(NOW));
+	}
+
+	@Test
+	void bucketIsIdleOnceFullyRefilled() {
+		TokenBucket bucket = new TokenBucket(3, 60);
+		assertTrue(bucket.isIdle(NOW));
+
+		bucket.tryAcquire(NOW);
+		bucket.tryAcquire(NOW);
+
+		assertFalse(bucket.isIdle(NOW + SECOND));
+		assertTrue(bucket.isIdle(NOW + 2 * SECOND));
+	}
+
+	@Test
+	void retryAfterRoundsUpToWholeSeconds() {
+		assertEquals(1, TokenBucket.toRetryAfterSeconds(0));
+		assertEquals(1, TokenBucket.toRetryAfterSeconds(1));
+		assertEquals(1, TokenBucket.toRetryAfterSeconds(SECOND));
+		assertEquals(2, TokenBucket.toRetryAfterSeconds(SECOND + 1));
+	}
+
+	@Test
+	void rejectsNonPositiveCapacityOrRate() {
+		assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 60));
+		assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+	}
+}
@@ -0,0 +1,40 @@
+package com.marketplace.Digital_Marketplace.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProductImportServiceTests {
+
+	@Test
+	void splitsPlainFieldsKeepingEmptyOnes() {
+		assertEquals(List.of("Planner", "", "9.99"), ProductImportService.splitCsv("Planner,,9.99"));
+		assertEquals(List.of("Planner", ""), ProductImportService.splitCsv("Planner,"));
+		assertEquals(List.of(""), ProductImportService.splitCsv(""));
+	}
+
+	@Test
+	void quotedFieldsMayContainCommas() {
+		assertEquals(List.of("Notion, Pro", "9.99"), ProductImportService.splitCsv("\"Notion, Pro\",9.99"));
+	}
+
+	@Test
+	void doubledQuotesInsideQuotedFieldsAreUnescaped() {
+		assertEquals(List.of("The \"Best\" Planner", "x"),
+				ProductImportService.splitCsv("\"The \"\"Best\"\" Planner\",x"));
+		assertEquals(List.of("\"", ""), ProductImportService.splitCsv("\"\"\"\","));
+	}
+
+	@Test
+	void emptyQuotedFieldIsEmpty() {
+		assertEquals(List.of("", "a"), ProductImportService.splitCsv("\"\",a"));
+	}
+
+	@Test
+	void rejectsUnterminatedQuotedField() {
+		assertThrows(IllegalArgumentException.class, () -> ProductImportService.splitCsv("\"Planner,9.99"));
+	}
+}
@@ -0,0 +1,184 @@
+package com.marketplace.Digital_Marketplace.services;
+
+import com.marketplace.Digital_Marketplace.events.ProductChangedEvent;
+import com.marketplace.Digital_Marketplace.models.OrderItem;
+import com.marketplace.Digital_Marketplace.models.Product;
+import com.marketplace.Digital_Marketplace.models.Review;
+import com.marketplace.Digital_Marketplace.models.User;
+import com.marketplace.Digital_Marketplace.repositories.OrderItemRepository;
+import com.marketplace.Digital_Marketplace.repositories.ProductRatingStatsRepository;
+import com.marketplace.Digital_Marketplace.repositories.ProductRepository;
+import com.marketplace.Digital_Marketplace.repositories.ReviewRepository;
+import com.marketplace.Digital_Marketplace.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewServiceTests {
+
+	private static final Long PRODUCT_ID = 7L;
+	private static final Long SELLER_ID = 1L;
+	private static final Long BUYER_ID = 2L;
+
+	@Mock
+	private ReviewRepository reviewRepository;
+
+	@Mock
+	private ProductRatingStatsRepository ratingStatsRepository;
+
+	@Mock
+	private ProductRepository productRepository;
+
+	@Mock
+	private OrderItemRepository orderItemRepository;
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	@InjectMocks
+	private ReviewService reviewService;
+
+	@Test
+	void createReviewAddsOneRatingToTheAggregate() {
+		Product product = product();
+		when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(product));
+		when(orderItemRepository.findPurchases(BUYER_ID, PRODUCT_ID, DownloadService.PAID_STATUSES))
+				.thenReturn(List.of(new OrderItem()));
+		when(reviewRepository.existsByProductIdAndReviewerId(PRODUCT_ID, BUYER_ID)).thenReturn(false);
+		when(userRepository.getReferenceById(BUYER_ID)).thenReturn(user(BUYER_ID));
+		when(reviewRepository.save(any(Review.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+		Review review = reviewService.createReview(PRODUCT_ID, BUYER_ID, 4, "Useful");
+
+		assertEquals(4, review.getRating());
+		verify(ratingStatsRepository).applyDelta(PRODUCT_ID, 1, 4, 0, 0, 0, 1, 0);
+		ArgumentCaptor<ProductChangedEvent> event = ArgumentCaptor.forClass(ProductChangedEvent.class);
+		verify(eventPublisher).publishEvent(event.capture());
+		assertEquals(ProductChangedEvent.Type.REVIEWED, event.getValue().getType());
+		assertEquals(SELLER_ID, event.getValue().getSellerId());
+	}
+
+	@Test
+	void createReviewRequiresAPurchase() {
+		when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(product()));
+		when(orderItemRepository.findPurchases(BUYER_ID, PRODUCT_ID, DownloadService.PAID_STATUSES))
+				.thenReturn(List.of());
+
+		ResponseStatusException e = assertThrows(ResponseStatusException.class,
+				() -> reviewService.createReview(PRODUCT_ID, BUYER_ID, 5, null));
+		assertEquals(HttpStatus.FORBIDDEN, e.getStatusCode());
+		verify(reviewRepository, never()).save(any());
+		verifyNoDelta();
+	}
+
+	@Test
+	void createReviewRejectsOutOfRangeRatings() {
+		assertThrows(IllegalArgumentException.class,
+				() -> reviewService.createReview(PRODUCT_ID, BUYER_ID, 6, null));
+		verifyNoDelta();
+	}
+
+	@Test
+	void updateReviewMovesOneRatingBetweenStarBuckets() {
+		Review review = review(2);
+		when(reviewRepository.findById(10L)).thenReturn(Optional.of(review));
+
+		Optional<Review> updated = reviewService.updateReview(10L, BUYER_ID, 5, "Better now");
+
+		assertSame(review, updated.orElseThrow());
+		assertEquals(5, review.getRating());
+		verify(ratingStatsRepository).applyDelta(PRODUCT_ID, 0, 3, 0, -1, 0, 0, 1);
+	}
+
+	@Test
+	void updateReviewWithTheSameRatingLeavesTheAggregate() {
+		Review review = review(3);
+		when(reviewRepository.findById(10L)).thenReturn(Optional.of(review));
+
+		reviewService.updateReview(10L, BUYER_ID, 3, "Edited comment");
+
+		assertEquals("Edited comment", review.getComment());
+		verifyNoDelta();
+	}
+
+	@Test
+	void updateReviewOfAnotherUserIsNotFound() {
+		when(reviewRepository.findById(10L)).thenReturn(Optional.of(review(3)));
+
+		assertTrue(reviewService.updateReview(10L, 99L, 1, null).isEmpty());
+		verifyNoDelta();
+	}
+
+	@Test
+	void deleteReviewRemovesItsRatingFromTheAggregate() {
+		Review review = review(4);
+		when(reviewRepository.findById(10L)).thenReturn(Optional.of(review));
+
+		assertTrue(reviewService.deleteReview(10L, BUYER_ID));
+
+		verify(reviewRepository).delete(review);
+		verify(ratingStatsRepository).applyDelta(PRODUCT_ID, -1, -4, 0, 0, 0, -1, 0);
+	}
+
+	@Test
+	void deleteReviewOfAnotherUserLeavesItInPlace() {
+		when(reviewRepository.findById(10L)).thenReturn(Optional.of(review(4)));
+
+		assertFalse(reviewService.deleteReview(10L, 99L));
+
+		verify(reviewRepository, never()).delete(any());
+		verifyNoDelta();
+	}
+
+	private void verifyNoDelta() {
+		verify(ratingStatsRepository, never()).applyDelta(any(), anyLong(), anyLong(), anyLong(), anyLong(),
+				anyLong(), anyLong(), anyLong());
+	}
+
+	private static Product product() {
+		Product product = new Product();
+		product.setId(PRODUCT_ID);
+		product.setApproved(true);
+		product.setSeller(user(SELLER_ID));
+		return product;
+	}
+
+	private static Review review(int rating) {
+		Review review = new Review();
+		review.setId(10L);
+		review.setProduct(product());
+		review.setReviewer(user(BUYER_ID));
+		review.setRating(rating);
+		return review;
+	}
+
+	private static User user(Long id) {
+		User user = new User();
+		user.setId(id);
+		return user;
+	}
+}